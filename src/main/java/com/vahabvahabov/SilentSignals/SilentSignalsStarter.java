@@ -6,12 +6,14 @@ import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @ComponentScan(basePackages = "com.vahabvahabov.SilentSignals")
 @EntityScan(basePackages = "com.vahabvahabov.SilentSignals")
 @EnableJpaRepositories(basePackages = "com.vahabvahabov.SilentSignals")
 @EnableAsync
+@EnableScheduling
 public class SilentSignalsStarter {
 
 	public static void main(String[] args) {
@@ -9,5 +9,11 @@ public interface AlertController {
 
     public ResponseEntity<?> sendAlert(Authentication authentication, Map<String, String> body);
 
+    public ResponseEntity<?> getAlertDeliveries(Authentication authentication, Long alertId);
+
+    public ResponseEntity<?> resolveAlert(Authentication authentication, Long alertId);
+
+    public ResponseEntity<?> cancelAlert(Authentication authentication, Long alertId);
+
 
 }
@@ -1,11 +1,11 @@
 package com.vahabvahabov.SilentSignals.controller;
 
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.RequestBody;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface AuthController {
 
-    public ResponseEntity<?> createAuthenticationToken(Map<String, String> authRequest);
+    public CompletableFuture<ResponseEntity<?>> createAuthenticationToken(Map<String, String> authRequest);
 }
@@ -1,13 +1,19 @@
 package com.vahabvahabov.SilentSignals.controller.imp;
 
 import com.vahabvahabov.SilentSignals.controller.AlertController;
-import com.vahabvahabov.SilentSignals.model.User;
+import com.vahabvahabov.SilentSignals.dto.AlertDeliveryReportDTO;
+import com.vahabvahabov.SilentSignals.dto.SOSAlertDTO;
+import com.vahabvahabov.SilentSignals.model.alert.AlertStatus;
+import com.vahabvahabov.SilentSignals.security.jwt.AuthenticatedUser;
 import com.vahabvahabov.SilentSignals.service.AlertService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -34,7 +40,7 @@ public class AlertControllerImpl implements AlertController {
             return ResponseEntity.status(401).body(createResponse(false, "User not authenticated"));
         }
 
-        User user = (User) authentication.getPrincipal();
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
 
         if (!user.isEnabled()) {
             logger.warn("User {} attempted to send SOS alert without email verification", user.getUsername());
@@ -51,7 +57,7 @@ public class AlertControllerImpl implements AlertController {
                 return ResponseEntity.badRequest().body(createResponse(false, "Description is required"));
             }
 
-            alertService.sendAlert(user, description, locationCoordinates, locationAddress);
+            alertService.sendAlert(user.getId(), description, locationCoordinates, locationAddress);
             logger.info("SOS alert sent successfully by user: {}", user.getUsername());
             return ResponseEntity.ok(createResponse(true, "Alert sent successfully"));
         } catch (Exception e) {
@@ -60,6 +66,76 @@ public class AlertControllerImpl implements AlertController {
         }
     }
 
+    @Override
+    @GetMapping("/{alertId}/deliveries")
+    public ResponseEntity<?> getAlertDeliveries(Authentication authentication,
+                                                @PathVariable(name = "alertId") Long alertId) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            logger.warn("Unauthorized attempt to read deliveries of alert {}", alertId);
+            return ResponseEntity.status(401).body(createResponse(false, "User not authenticated"));
+        }
+
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+
+        try {
+            AlertDeliveryReportDTO report = alertService.getDeliveryReport(user.getId(), alertId);
+            Map<String, Object> response = createResponse(true, "Alert deliveries retrieved successfully");
+            response.put("data", report);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Error retrieving deliveries of alert {} for user {}: {}", alertId, user.getUsername(), e.getMessage());
+            if (e.getMessage() != null && e.getMessage().contains("not found")) {
+                return ResponseEntity.status(404).body(createResponse(false, "Alert not found"));
+            }
+            return ResponseEntity.status(500).body(createResponse(false, "Failed to retrieve alert deliveries: " + e.getMessage()));
+        }
+    }
+
+    @Override
+    @PostMapping("/{alertId}/resolve")
+    public ResponseEntity<?> resolveAlert(Authentication authentication,
+                                          @PathVariable(name = "alertId") Long alertId) {
+        return closeAlert(authentication, alertId, AlertStatus.RESOLVED);
+    }
+
+    @Override
+    @PostMapping("/{alertId}/cancel")
+    public ResponseEntity<?> cancelAlert(Authentication authentication,
+                                         @PathVariable(name = "alertId") Long alertId) {
+        return closeAlert(authentication, alertId, AlertStatus.CANCELLED);
+    }
+
+    private ResponseEntity<?> closeAlert(Authentication authentication, Long alertId, AlertStatus targetStatus) {
+        String action = targetStatus.getDisplayName().toLowerCase();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            logger.warn("Unauthorized attempt to mark alert {} {}", alertId, action);
+            return ResponseEntity.status(401).body(createResponse(false, "User not authenticated"));
+        }
+
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+
+        try {
+            SOSAlertDTO alert = targetStatus == AlertStatus.RESOLVED
+                    ? alertService.resolveAlert(user.getId(), alertId)
+                    : alertService.cancelAlert(user.getId(), alertId);
+            Map<String, Object> response = createResponse(true, "Alert " + action + " successfully");
+            response.put("data", alert);
+            return ResponseEntity.ok(response);
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Concurrent update of alert {} by user {}", alertId, user.getUsername());
+            return ResponseEntity.status(409).body(createResponse(false, "Alert was changed concurrently, please retry"));
+        } catch (Exception e) {
+            logger.error("Error marking alert {} {} for user {}: {}", alertId, action, user.getUsername(), e.getMessage());
+            if (e.getMessage() != null && e.getMessage().contains("not found")) {
+                return ResponseEntity.status(404).body(createResponse(false, "Alert not found"));
+            }
+            if (e.getMessage() != null && e.getMessage().contains("not active")) {
+                return ResponseEntity.status(409).body(createResponse(false, e.getMessage()));
+            }
+            return ResponseEntity.status(500).body(createResponse(false, "Failed to update alert: " + e.getMessage()));
+        }
+    }
+
     private Map<String, Object> createResponse(boolean success, String message) {
         Map<String, Object> response = new HashMap<>();
         response.put("success", success);
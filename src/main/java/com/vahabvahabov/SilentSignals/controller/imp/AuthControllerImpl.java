@@ -1,14 +1,11 @@
 package com.vahabvahabov.SilentSignals.controller.imp;
 
 import com.vahabvahabov.SilentSignals.controller.AuthController;
+import com.vahabvahabov.SilentSignals.model.User;
 import com.vahabvahabov.SilentSignals.security.jwt.JwtUtil;
+import com.vahabvahabov.SilentSignals.service.LoginService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -16,6 +13,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 @RestController
@@ -23,32 +21,33 @@ import java.util.Map;
 public class AuthControllerImpl implements AuthController {
 
     @Autowired
-    private AuthenticationManager authenticationManager;
-
-    @Autowired
-    private UserDetailsService userDetailsService;
+    private LoginService loginService;
 
     @Autowired
     private JwtUtil jwtUtil;
 
 
+    /**
+     * The password check runs on the hashing pool, so the request thread is released while bcrypt
+     * works. A saturated pool fails the future and the request gets a 503.
+     */
     @Override
     @PostMapping("/login")
-    public ResponseEntity<?> createAuthenticationToken(@RequestBody Map<String, String> authRequest) {
-        try {
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(authRequest.get("username"), authRequest.get("password"))
-            );
-        } catch (BadCredentialsException e) {
-            return ResponseEntity.status(401).body(createResponse(false, "Invalid username or password"));
-        }
-
-        final UserDetails userDetails = userDetailsService.loadUserByUsername(authRequest.get("username"));
-        final String jwt = jwtUtil.generateToken(userDetails);
-
-        Map<String, Object> response = createResponse(true, "Login successful");
-        response.put("token", jwt);
-        return ResponseEntity.ok(response);
+    public CompletableFuture<ResponseEntity<?>> createAuthenticationToken(@RequestBody Map<String, String> authRequest) {
+        return loginService.login(authRequest.get("username"), authRequest.get("password"))
+                .thenApply(optional -> {
+                    if (optional.isEmpty()) {
+                        return ResponseEntity.status(401).body(createResponse(false, "Invalid username or password"));
+                    }
+                    User user = optional.get();
+                    if (!user.isEnabled()) {
+                        return ResponseEntity.status(403).body(createResponse(false, "Email not verified"));
+                    }
+
+                    Map<String, Object> response = createResponse(true, "Login successful");
+                    response.put("token", jwtUtil.generateToken(user));
+                    return ResponseEntity.ok(response);
+                });
     }
 
     private Map<String, Object> createResponse(boolean success, String message) {
@@ -1,16 +1,18 @@
 package com.vahabvahabov.SilentSignals.controller.imp;
 
 import com.vahabvahabov.SilentSignals.controller.ForgotPasswordController;
+import com.vahabvahabov.SilentSignals.exception.BulkheadFullException;
 import com.vahabvahabov.SilentSignals.model.register.PinVerificationRequest;
 import com.vahabvahabov.SilentSignals.model.register.ResetPasswordRequest;
 import com.vahabvahabov.SilentSignals.model.User;
 import com.vahabvahabov.SilentSignals.service.EmailService;
+import com.vahabvahabov.SilentSignals.service.PasswordHashingService;
+import com.vahabvahabov.SilentSignals.service.PinStore;
 import com.vahabvahabov.SilentSignals.service.UserService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -30,10 +32,10 @@ public class ForgotPasswordControllerImpl implements ForgotPasswordController {
     private UserService userService;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
-    private Map<String, String> pinStorage = new HashMap<>();
-    private Map<String, Date> pinExpirationStorage = new HashMap<>();
+    @Autowired
+    private PinStore pinStore;
 
     @Override
     @PostMapping("/send-pin")
@@ -47,16 +49,15 @@ public class ForgotPasswordControllerImpl implements ForgotPasswordController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(createResponse(false, "This email address is not registered."));
         }
 
+        // A full PIN store surfaces as 503 via GlobalExceptionHandler.
+        String pin = pinStore.issue(PinStore.Purpose.PASSWORD_RESET, mail);
         try {
-            String pin = String.format("%06d", new Random().nextInt(999999));
-            Date expirationTime = new Date(System.currentTimeMillis() + 10 * 60 * 1000);
-
-            pinStorage.put(mail, pin);
-            pinExpirationStorage.put(mail, expirationTime);
-
             emailService.sendPinToEmail(mail, pin);
             log.info("PIN sent successfully to: {}", mail);
             return ResponseEntity.ok(createResponse(true, "A PIN code has been sent to your email address."));
+        } catch (BulkheadFullException e) {
+            log.warn("PIN mail queue is full, turning away request for: {}", mail);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(createResponse(false, "The server is busy, please try again shortly."));
         } catch (Exception e) {
             log.error("Failed to send PIN to: {}", mail, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(createResponse(false, "Failed to send PIN. Please try again."));
@@ -69,12 +70,8 @@ public class ForgotPasswordControllerImpl implements ForgotPasswordController {
         String mail = request.getMail();
         String pin = request.getPin();
 
-        String storedPin = pinStorage.get(mail);
-        Date expirationTime = pinExpirationStorage.get(mail);
-
-        if (storedPin != null && storedPin.equals(pin) && new Date().before(expirationTime)) {
-            pinStorage.remove(mail);
-            pinExpirationStorage.remove(mail);
+        if (mail != null && pin != null
+                && pinStore.verify(PinStore.Purpose.PASSWORD_RESET, mail, pin) == PinStore.Verification.VERIFIED) {
             return ResponseEntity.ok(createResponse(true, "Pin code confirmed."));
         }
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(createResponse(false, "The PIN code you entered is incorrect or has expired."));
@@ -102,11 +99,14 @@ public class ForgotPasswordControllerImpl implements ForgotPasswordController {
 
         User dbUser = optional.get();
 
-        if (passwordEncoder.matches(newPassword, dbUser.getPassword())) {
+        // Hashing runs on the bounded pool; a full pool surfaces as 503 via GlobalExceptionHandler.
+        if (passwordHashingService.matches(newPassword, dbUser.getPassword())) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(createResponse(false, "The new password cannot be the same as the old one."));
         }
 
-        dbUser.setPassword(passwordEncoder.encode(newPassword));
+        dbUser.setPassword(passwordHashingService.encode(newPassword));
+        // Revokes every token issued before the reset.
+        dbUser.setTokenVersion((dbUser.getTokenVersion() == null ? 0L : dbUser.getTokenVersion()) + 1);
         userService.saveNewUser(dbUser);
 
         log.info("Password successfully updated for user: {}", mail);
@@ -2,8 +2,8 @@ package com.vahabvahabov.SilentSignals.controller.imp;
 
 import com.vahabvahabov.SilentSignals.controller.TrustedContactController;
 import com.vahabvahabov.SilentSignals.dto.TrustedContactDTO;
-import com.vahabvahabov.SilentSignals.model.User;
 import com.vahabvahabov.SilentSignals.model.contact.TrustedContact;
+import com.vahabvahabov.SilentSignals.security.jwt.AuthenticatedUser;
 import com.vahabvahabov.SilentSignals.service.TrustedContactService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -35,12 +35,12 @@ public class TrustedContactControllerImpl implements TrustedContactController {
                                                BindingResult result) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-        if (authentication == null || !authentication.isAuthenticated() || !(authentication.getPrincipal() instanceof User)) {
+        if (authentication == null || !authentication.isAuthenticated() || !(authentication.getPrincipal() instanceof AuthenticatedUser)) {
             logger.warn("Unauthorized attempt to add trusted contact");
             return ResponseEntity.status(401).body(createResponse(false, "User not authenticated"));
         }
 
-        User user = (User) authentication.getPrincipal();
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
         String username = user.getUsername();
 
         logger.info("Adding trusted contact for CURRENT user: {} (ID: {})", username, user.getId());
@@ -55,7 +55,7 @@ public class TrustedContactControllerImpl implements TrustedContactController {
         }
 
         try {
-            TrustedContactDTO trustedContactDTO = trustedContactService.addTrustedContact(username, trustedContact);
+            TrustedContactDTO trustedContactDTO = trustedContactService.addTrustedContact(user.getId(), username, trustedContact);
             logger.info("Trusted contact added successfully for user: {}", username);
             return ResponseEntity.ok(createResponse(true, "Trusted contact added successfully", trustedContactDTO));
         } catch (Exception e) {
@@ -81,14 +81,14 @@ public class TrustedContactControllerImpl implements TrustedContactController {
     public ResponseEntity<?> getAllTrustedContacts() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-        if (authentication == null || !authentication.isAuthenticated() || !(authentication.getPrincipal() instanceof User)) {
+        if (authentication == null || !authentication.isAuthenticated() || !(authentication.getPrincipal() instanceof AuthenticatedUser)) {
             logger.warn("Unauthorized attempt to get all trusted contacts");
             return ResponseEntity.status(401).body(createResponse(false, "User not authenticated"));
         }
 
         try {
-            User user = (User) authentication.getPrincipal();
-            List<TrustedContactDTO> contacts = trustedContactService.getAllTrustedContactsByUserId(user.getId());
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+            List<TrustedContactDTO> contacts = trustedContactService.getAllTrustedContactsByUserId(user.getId(), user.getUsername());
             logger.info("Retrieved {} trusted contacts for user: {}", contacts.size(), user.getUsername());
             return ResponseEntity.ok(createResponse(true, "Trusted contacts retrieved successfully", contacts));
         } catch (Exception e) {
@@ -102,12 +102,12 @@ public class TrustedContactControllerImpl implements TrustedContactController {
     public ResponseEntity<?> deleteTrustedContactById(@PathVariable(name = "contactId") Long contactId) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-        if (authentication == null || !authentication.isAuthenticated() || !(authentication.getPrincipal() instanceof User)) {
+        if (authentication == null || !authentication.isAuthenticated() || !(authentication.getPrincipal() instanceof AuthenticatedUser)) {
             logger.warn("Unauthorized attempt to delete trusted contact");
             return ResponseEntity.status(401).body(createResponse(false, "User not authenticated"));
         }
 
-        User user = (User) authentication.getPrincipal();
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
         Long userId = user.getId();
 
         logger.info("Received request to delete trusted contact ID: {} for CURRENT user ID: {} ({})",
@@ -1,11 +1,9 @@
 package com.vahabvahabov.SilentSignals.controller.imp;
 
 import com.vahabvahabov.SilentSignals.controller.UserController;
-import com.vahabvahabov.SilentSignals.model.User;
-import com.vahabvahabov.SilentSignals.service.UserService;
+import com.vahabvahabov.SilentSignals.security.jwt.AuthenticatedUser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -22,30 +20,26 @@ public class UserControllerImpl implements UserController {
 
     private final Logger logger = LoggerFactory.getLogger(UserControllerImpl.class);
 
-    @Autowired
-    private UserService userService;
-
     @Override
     @GetMapping("/profile")
     public ResponseEntity<?> getUserProfile() {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-            if (authentication == null || !authentication.isAuthenticated() || !(authentication.getPrincipal() instanceof User)) {
+            if (authentication == null || !authentication.isAuthenticated() || !(authentication.getPrincipal() instanceof AuthenticatedUser)) {
                 return ResponseEntity.status(401).body(createResponse(false, "User not authenticated"));
             }
 
-            User user = (User) authentication.getPrincipal();
-            logger.info("Loading profile for CURRENT user: {} (ID: {})", user.getUsername(), user.getId());
+            AuthenticatedUser principal = (AuthenticatedUser) authentication.getPrincipal();
+            logger.info("Loading profile for CURRENT user: {} (ID: {})", principal.getUsername(), principal.getId());
 
+            // Everything the profile shows travels in the token, so no user lookup is needed.
             Map<String, Object> userProfile = new HashMap<>();
-            userProfile.put("id", user.getId());
-            userProfile.put("username", user.getUsername());
-            userProfile.put("email", user.getMail());
-            userProfile.put("dateOfBirth", user.getDate_of_birth());
-            userProfile.put("enabled", user.isEnabled());
-            userProfile.put("emailVerified", user.isEmailVerified());
-            userProfile.put("createdAt", user.getCreatedAt());
+            userProfile.put("id", principal.getId());
+            userProfile.put("username", principal.getUsername());
+            userProfile.put("email", principal.getMail());
+            userProfile.put("enabled", principal.isEnabled());
+            userProfile.put("emailVerified", principal.isEmailVerified());
 
             return ResponseEntity.ok(createResponse(true, userProfile));
 
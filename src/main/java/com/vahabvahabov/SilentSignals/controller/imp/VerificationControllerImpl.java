@@ -1,15 +1,17 @@
 package com.vahabvahabov.SilentSignals.controller.imp;
 
 import com.vahabvahabov.SilentSignals.controller.VerificationController;
+import com.vahabvahabov.SilentSignals.exception.BulkheadFullException;
 import com.vahabvahabov.SilentSignals.model.register.PinVerificationRequest;
 import com.vahabvahabov.SilentSignals.model.register.RegisterRequest;
 import com.vahabvahabov.SilentSignals.model.User;
 import com.vahabvahabov.SilentSignals.service.EmailService;
+import com.vahabvahabov.SilentSignals.service.PasswordHashingService;
+import com.vahabvahabov.SilentSignals.service.PinStore;
 import com.vahabvahabov.SilentSignals.service.UserService;
 import jakarta.mail.MessagingException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -17,11 +19,9 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.dao.DataAccessException;
 
 import java.time.LocalDateTime;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Random;
 
 @RestController
 @RequestMapping("/api/register")
@@ -34,10 +34,10 @@ public class VerificationControllerImpl implements VerificationController {
     private EmailService emailService;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
-    private Map<String, String> pinStorage = new HashMap<>();
-    private Map<String, Date> pinExpirationStorage = new HashMap<>();
+    @Autowired
+    private PinStore pinStore;
 
     @Override
     @PostMapping("/send-pin")
@@ -52,10 +52,7 @@ public class VerificationControllerImpl implements VerificationController {
         if (existingUser.isPresent()) {
             return ResponseEntity.badRequest().body(createResponse(false, "This email address is already registered!"));
         }
-        String pin = String.format("%06d", new Random().nextInt(999999));
-        Date expirationTime = new Date(System.currentTimeMillis() + 10 * 60 * 1000); // 10 minutes
-        pinStorage.put(mail, pin);
-        pinExpirationStorage.put(mail, expirationTime);
+        String pin = pinStore.issue(PinStore.Purpose.REGISTRATION, mail);
         emailService.sendPinToEmail(mail, pin);
         return ResponseEntity.ok(createResponse(true, "Your code has been sent to your email address."));
     }
@@ -70,25 +67,17 @@ public class VerificationControllerImpl implements VerificationController {
             return ResponseEntity.badRequest().body(createResponse(false, "Email and PIN are required"));
         }
 
-        String storedPin = pinStorage.get(mail);
-        Date expirationTime = pinExpirationStorage.get(mail);
-
-        if (storedPin == null || expirationTime == null) {
-            return ResponseEntity.badRequest().body(createResponse(false, "No PIN found for this email. Please request a new PIN."));
-        }
-
-        if (!storedPin.equals(pin)) {
-            return ResponseEntity.badRequest().body(createResponse(false, "The entered PIN code is incorrect!"));
+        switch (pinStore.verify(PinStore.Purpose.REGISTRATION, mail, pin)) {
+            case NOT_FOUND:
+                return ResponseEntity.badRequest().body(createResponse(false, "No PIN found for this email. Please request a new PIN."));
+            case INCORRECT:
+                return ResponseEntity.badRequest().body(createResponse(false, "The entered PIN code is incorrect!"));
+            case EXPIRED:
+                return ResponseEntity.badRequest().body(createResponse(false, "The PIN code has expired!"));
+            default:
+                break;
         }
 
-        if (new Date().after(expirationTime)) {
-            pinStorage.remove(mail);
-            pinExpirationStorage.remove(mail);
-            return ResponseEntity.badRequest().body(createResponse(false, "The PIN code has expired!"));
-        }
-
-        pinStorage.remove(mail);
-        pinExpirationStorage.remove(mail);
         return ResponseEntity.ok(createResponse(true, "Email confirmed!"));
     }
 
@@ -147,7 +136,7 @@ public class VerificationControllerImpl implements VerificationController {
             User newUser = new User();
             newUser.setUsername(lowercaseUsername);
             newUser.setMail(request.getMail().trim());
-            newUser.setPassword(passwordEncoder.encode(password));
+            newUser.setPassword(passwordHashingService.encode(password));
             newUser.setDate_of_birth(request.getDateOfBirth());
             newUser.setEmailVerified(true);
             newUser.setCreatedAt(LocalDateTime.now());
@@ -156,6 +145,8 @@ public class VerificationControllerImpl implements VerificationController {
 
             return ResponseEntity.ok(createResponse(true, "Registration has been completed successfully!"));
 
+        } catch (BulkheadFullException e) {
+            return ResponseEntity.status(503).body(createResponse(false, "The server is busy, please try again shortly."));
         } catch (DataAccessException e) {
             System.err.println("Database access error during registration: " + e.getMessage());
             return ResponseEntity.badRequest().body(createResponse(false, "There was a problem with the database. Please try again."));
@@ -178,11 +169,7 @@ public class VerificationControllerImpl implements VerificationController {
             return ResponseEntity.badRequest().body(createResponse(false, "This email address is already registered!"));
         }
 
-        String pin = String.format("%06d", new Random().nextInt(999999));
-        Date expirationTime = new Date(System.currentTimeMillis() + 10 * 60 * 1000); // 10 minutes
-
-        pinStorage.put(mail, pin);
-        pinExpirationStorage.put(mail, expirationTime);
+        String pin = pinStore.issue(PinStore.Purpose.REGISTRATION, mail);
 
         emailService.sendPinToEmail(mail, pin);
 
@@ -0,0 +1,25 @@
+package com.vahabvahabov.SilentSignals.dto;
+
+import com.vahabvahabov.SilentSignals.model.alert.DeliveryStatus;
+import com.vahabvahabov.SilentSignals.model.alert.NotificationChannel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertDeliveryDTO {
+    private Long id;
+    private Long contactId;
+    private NotificationChannel channel;
+    private String recipient;
+    private DeliveryStatus status;
+    private int attempt;
+    private LocalDateTime enqueuedAt;
+    private LocalDateTime sentAt;
+    private Long latencyMillis;
+    private String error;
+}
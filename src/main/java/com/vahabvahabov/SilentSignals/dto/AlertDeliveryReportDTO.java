@@ -0,0 +1,23 @@
+package com.vahabvahabov.SilentSignals.dto;
+
+import com.vahabvahabov.SilentSignals.model.alert.AlertStatus;
+import com.vahabvahabov.SilentSignals.model.alert.NotificationChannel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertDeliveryReportDTO {
+    private Long alertId;
+    private AlertStatus alertStatus;
+    private LocalDateTime triggeredAt;
+    private Long timeToFirstNotificationMillis;
+    private Map<NotificationChannel, Double> averageLatencyMillis;
+    private List<AlertDeliveryDTO> deliveries;
+}
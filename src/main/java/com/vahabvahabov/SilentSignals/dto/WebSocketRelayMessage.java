@@ -0,0 +1,14 @@
+package com.vahabvahabov.SilentSignals.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebSocketRelayMessage {
+    private String user;
+    private String destination;
+    private String payload;
+}
@@ -0,0 +1,15 @@
+package com.vahabvahabov.SilentSignals.exception;
+
+public class BulkheadFullException extends RuntimeException {
+
+    private final String bulkheadName;
+
+    public BulkheadFullException(String bulkheadName) {
+        super(String.format("Bulkhead %s is full", bulkheadName));
+        this.bulkheadName = bulkheadName;
+    }
+
+    public String getBulkheadName() {
+        return bulkheadName;
+    }
+}
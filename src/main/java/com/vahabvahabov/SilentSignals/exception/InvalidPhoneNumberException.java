@@ -0,0 +1,8 @@
+package com.vahabvahabov.SilentSignals.exception;
+
+public class InvalidPhoneNumberException extends RuntimeException {
+
+    public InvalidPhoneNumberException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.vahabvahabov.SilentSignals.exception;
+
+public class PinStoreUnavailableException extends RuntimeException {
+
+    public PinStoreUnavailableException(Throwable cause) {
+        super("PIN store is unavailable", cause);
+    }
+}
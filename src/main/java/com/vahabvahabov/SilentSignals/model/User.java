@@ -51,6 +51,10 @@ public class User implements UserDetails {
     @Column(name = "is_email_verified")
     private boolean isEmailVerified = false;
 
+    // Tokens carrying an older version are rejected; bumped on password reset.
+    @Column(name = "token_version")
+    private Long tokenVersion = 0L;
+
     @OneToMany
     private List<TrustedContact> trustedContacts = new ArrayList<>();
 
@@ -0,0 +1,59 @@
+package com.vahabvahabov.SilentSignals.model.alert;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One delivery attempt of one notification to one contact over one channel.
+ */
+@Entity
+@Table(name = "alert_delivery",
+        indexes = {
+                @Index(name = "idx_alert_delivery_alert_channel_status", columnList = "alert_id, channel, status")
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertDelivery {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "alert_id", nullable = false)
+    private SOSAlert alert;
+
+    @Column(name = "contact_id")
+    private Long contactId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "channel", nullable = false)
+    private NotificationChannel channel;
+
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private DeliveryStatus status;
+
+    @Column(name = "attempt", nullable = false)
+    private int attempt;
+
+    @Column(name = "enqueued_at", nullable = false)
+    private LocalDateTime enqueuedAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @Column(name = "latency_ms")
+    private Long latencyMillis;
+
+    @Column(name = "error", length = 1000)
+    private String error;
+}
@@ -0,0 +1,36 @@
+package com.vahabvahabov.SilentSignals.model.alert;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One reminder round sent for an alert that is still ACTIVE.
+ */
+@Entity
+@Table(name = "alert_reminder",
+        indexes = {
+                @Index(name = "idx_alert_reminder_alert", columnList = "alert_id")
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertReminder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "alert_id", nullable = false)
+    private SOSAlert alert;
+
+    @Column(name = "sequence_number", nullable = false)
+    private int sequenceNumber;
+
+    @Column(name = "sent_at", nullable = false)
+    private LocalDateTime sentAt;
+}
@@ -0,0 +1,15 @@
+package com.vahabvahabov.SilentSignals.model.alert;
+
+import lombok.Getter;
+
+@Getter
+public enum DeliveryStatus {
+    SENT("Sent"),
+    FAILED("Failed");
+
+    private final String displayName;
+
+    DeliveryStatus(String displayName) {
+        this.displayName = displayName;
+    }
+}
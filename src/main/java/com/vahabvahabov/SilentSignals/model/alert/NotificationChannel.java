@@ -0,0 +1,16 @@
+package com.vahabvahabov.SilentSignals.model.alert;
+
+import lombok.Getter;
+
+@Getter
+public enum NotificationChannel {
+    WEBSOCKET("WebSocket"),
+    EMAIL("Email"),
+    SMS("SMS");
+
+    private final String displayName;
+
+    NotificationChannel(String displayName) {
+        this.displayName = displayName;
+    }
+}
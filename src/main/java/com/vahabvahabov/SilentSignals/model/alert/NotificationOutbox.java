@@ -0,0 +1,83 @@
+package com.vahabvahabov.SilentSignals.model.alert;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A pending notification, written in the same transaction as its {@link SOSAlert}
+ * and drained by the outbox relay.
+ */
+@Entity
+@Table(name = "notification_outbox",
+        indexes = {
+                @Index(name = "idx_notification_outbox_next_attempt", columnList = "status, channel, next_attempt_at")
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "alert_id", nullable = false)
+    private Long alertId;
+
+    @Column(name = "contact_id")
+    private Long contactId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "channel", nullable = false)
+    private NotificationChannel channel;
+
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+
+    @Column(name = "username")
+    private String username;
+
+    @Column(name = "description", length = 500)
+    private String description;
+
+    @Column(name = "location_address")
+    private String locationAddress;
+
+    @Column(name = "reminder", nullable = false)
+    private boolean reminder;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    @Column(name = "claimed_by")
+    private String claimedBy;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public NotificationTask toTask() {
+        return new NotificationTask(id, alertId, contactId, channel, recipient, username, description, locationAddress, reminder);
+    }
+}
@@ -0,0 +1,39 @@
+package com.vahabvahabov.SilentSignals.model.alert;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationResult {
+
+    private NotificationTask task;
+
+    private boolean success;
+
+    private boolean rejected;
+
+    private boolean retryable;
+
+    private String error;
+
+    private long latencyMillis;
+
+    private LocalDateTime completedAt;
+
+    public static NotificationResult success(NotificationTask task, long latencyMillis) {
+        return new NotificationResult(task, true, false, false, null, latencyMillis, LocalDateTime.now());
+    }
+
+    public static NotificationResult failure(NotificationTask task, String error, boolean retryable, long latencyMillis) {
+        return new NotificationResult(task, false, false, retryable, error, latencyMillis, LocalDateTime.now());
+    }
+
+    public static NotificationResult rejected(NotificationTask task, String error) {
+        return new NotificationResult(task, false, true, true, error, 0, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,33 @@
+package com.vahabvahabov.SilentSignals.model.alert;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One notification to one contact over one channel. Carries plain values only,
+ * so it can be sent after the alert transaction has been committed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationTask {
+
+    private Long outboxId;
+
+    private Long alertId;
+
+    private Long contactId;
+
+    private NotificationChannel channel;
+
+    private String recipient;
+
+    private String username;
+
+    private String description;
+
+    private String locationAddress;
+
+    private boolean reminder;
+}
@@ -0,0 +1,18 @@
+package com.vahabvahabov.SilentSignals.model.alert;
+
+import lombok.Getter;
+
+@Getter
+public enum OutboxStatus {
+    PENDING("Pending"),
+    IN_FLIGHT("In flight"),
+    SENT("Sent"),
+    FAILED("Failed"),
+    CANCELLED("Cancelled");
+
+    private final String displayName;
+
+    OutboxStatus(String displayName) {
+        this.displayName = displayName;
+    }
+}
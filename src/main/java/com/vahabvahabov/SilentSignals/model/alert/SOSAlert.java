@@ -40,5 +40,14 @@ public class SOSAlert {
     @Column(name = "description", length = 500)
     private String description;
 
+    // Only set while the alert is ACTIVE; indexed by a partial index (see schema.sql).
+    @Column(name = "next_reminder_at")
+    private LocalDateTime nextReminderAt;
 
+    @Column(name = "closed_at")
+    private LocalDateTime closedAt;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
 }
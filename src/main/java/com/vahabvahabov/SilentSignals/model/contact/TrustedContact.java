@@ -39,6 +39,13 @@ public class TrustedContact {
     @Pattern(regexp = "^$|^\\+?[0-9\\-\\s()]{10,}$", message = "The phone number format is invalid.")
     private String phone;
 
+    @Column(name = "phone_e164", length = 16)
+    private String phoneE164;
+
+    // Set when a stored number could not be normalized, so the startup backfill skips it.
+    @Column(name = "phone_invalid")
+    private Boolean phoneInvalid = false;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
@@ -0,0 +1,22 @@
+package com.vahabvahabov.SilentSignals.repository;
+
+import com.vahabvahabov.SilentSignals.model.alert.AlertDelivery;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AlertDeliveryRepository extends JpaRepository<AlertDelivery, Long> {
+
+    /**
+     * Returns one row per delivery of the alert as {@code [SOSAlert, AlertDelivery]}, or a single
+     * {@code [SOSAlert, null]} row if nothing has been delivered yet. Returns no rows when the alert
+     * does not exist or does not belong to the user.
+     */
+    @Query("SELECT a, d FROM SOSAlert a LEFT JOIN AlertDelivery d ON d.alert = a " +
+            "WHERE a.id = :alertId AND a.user.id = :userId ORDER BY d.id")
+    List<Object[]> findAlertWithDeliveries(@Param("alertId") Long alertId, @Param("userId") Long userId);
+}
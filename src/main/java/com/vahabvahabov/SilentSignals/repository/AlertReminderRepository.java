@@ -0,0 +1,9 @@
+package com.vahabvahabov.SilentSignals.repository;
+
+import com.vahabvahabov.SilentSignals.model.alert.AlertReminder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AlertReminderRepository extends JpaRepository<AlertReminder, Long> {
+}
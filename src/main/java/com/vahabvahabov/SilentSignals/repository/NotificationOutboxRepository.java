@@ -0,0 +1,71 @@
+package com.vahabvahabov.SilentSignals.repository;
+
+import com.vahabvahabov.SilentSignals.model.alert.NotificationOutbox;
+import com.vahabvahabov.SilentSignals.model.alert.OutboxStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    /**
+     * Due PENDING rows of one channel whose alert is still ACTIVE. Only the outbox rows are locked, so
+     * claiming never waits on an alert being closed.
+     */
+    @Query(value = "SELECT o.* FROM notification_outbox o JOIN sos_alert a ON a.id = o.alert_id " +
+            "WHERE o.status = 'PENDING' AND o.channel = :channel AND o.next_attempt_at <= :now " +
+            "AND a.is_alert = 'ACTIVE' ORDER BY o.next_attempt_at LIMIT :limit FOR UPDATE OF o SKIP LOCKED",
+            nativeQuery = true)
+    List<NotificationOutbox> lockDueBatch(@Param("channel") String channel,
+                                          @Param("now") LocalDateTime now,
+                                          @Param("limit") int limit);
+
+    /**
+     * Rows being completed, locked so that closing their alert waits for the outcome to be written
+     * and then cancels whatever was re-queued.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM NotificationOutbox o WHERE o.id IN :ids ORDER BY o.id")
+    List<NotificationOutbox> lockAllById(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Hands expired claims of ACTIVE alerts back to the relay.
+     */
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = :pending, o.claimedAt = NULL, o.claimedBy = NULL " +
+            "WHERE o.status = :inFlight AND o.claimedAt < :cutoff AND o.alertId IN (" +
+            "SELECT a.id FROM SOSAlert a WHERE a.alertStatus = com.vahabvahabov.SilentSignals.model.alert.AlertStatus.ACTIVE)")
+    int releaseStaleClaims(@Param("pending") OutboxStatus pending,
+                           @Param("inFlight") OutboxStatus inFlight,
+                           @Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Cancels expired claims whose alert has been closed in the meantime.
+     */
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = com.vahabvahabov.SilentSignals.model.alert.OutboxStatus.CANCELLED, " +
+            "o.claimedAt = NULL, o.claimedBy = NULL " +
+            "WHERE o.status = com.vahabvahabov.SilentSignals.model.alert.OutboxStatus.IN_FLIGHT " +
+            "AND o.claimedAt < :cutoff AND o.alertId NOT IN (" +
+            "SELECT a.id FROM SOSAlert a WHERE a.alertStatus = com.vahabvahabov.SilentSignals.model.alert.AlertStatus.ACTIVE)")
+    int cancelStaleClaimsOfClosedAlerts(@Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Cancels every undelivered row of the alerts, including rows a relay is sending right now; their
+     * outcome is still recorded when it comes back, but they are never re-queued.
+     */
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = com.vahabvahabov.SilentSignals.model.alert.OutboxStatus.CANCELLED " +
+            "WHERE o.status IN (com.vahabvahabov.SilentSignals.model.alert.OutboxStatus.PENDING, " +
+            "com.vahabvahabov.SilentSignals.model.alert.OutboxStatus.IN_FLIGHT) AND o.alertId IN :alertIds")
+    int cancelPending(@Param("alertIds") Collection<Long> alertIds);
+}
@@ -1,16 +1,48 @@
 package com.vahabvahabov.SilentSignals.repository;
 
-import com.vahabvahabov.SilentSignals.model.alert.AlertStatus;
 import com.vahabvahabov.SilentSignals.model.alert.SOSAlert;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface SOSAlertRepository extends JpaRepository<SOSAlert, Long> {
-    @Query("SELECT sa FROM SOSAlert sa JOIN FETCH sa.user WHERE sa.alertStatus = :alertStatus")
-    List<SOSAlert> findByAlertStatus(@Param("alertStatus") AlertStatus alertStatus);
+    /**
+     * Keyset page of one shard's ACTIVE alerts whose reminder is due, ordered by (next_reminder_at, id)
+     * and starting after the given cursor. Served by idx_sos_alert_next_reminder_active.
+     */
+    @Query("SELECT sa FROM SOSAlert sa " +
+            "WHERE sa.alertStatus = com.vahabvahabov.SilentSignals.model.alert.AlertStatus.ACTIVE " +
+            "AND sa.nextReminderAt <= :now " +
+            "AND MOD(sa.user.id, :shardCount) = :shardIndex " +
+            "AND (sa.nextReminderAt > :afterReminderAt OR (sa.nextReminderAt = :afterReminderAt AND sa.id > :afterId)) " +
+            "ORDER BY sa.nextReminderAt, sa.id")
+    List<SOSAlert> findDueForReminder(@Param("shardCount") int shardCount,
+                                      @Param("shardIndex") int shardIndex,
+                                      @Param("now") LocalDateTime now,
+                                      @Param("afterReminderAt") LocalDateTime afterReminderAt,
+                                      @Param("afterId") Long afterId,
+                                      Pageable pageable);
+
+    /**
+     * Keyset page of (id, next_reminder_at) for every ACTIVE alert with a pending reminder.
+     */
+    @Query("SELECT sa.id, sa.nextReminderAt FROM SOSAlert sa " +
+            "WHERE sa.alertStatus = com.vahabvahabov.SilentSignals.model.alert.AlertStatus.ACTIVE " +
+            "AND sa.nextReminderAt IS NOT NULL " +
+            "AND (sa.nextReminderAt > :afterReminderAt OR (sa.nextReminderAt = :afterReminderAt AND sa.id > :afterId)) " +
+            "ORDER BY sa.nextReminderAt, sa.id")
+    List<Object[]> findScheduledReminders(@Param("afterReminderAt") LocalDateTime afterReminderAt,
+                                          @Param("afterId") Long afterId,
+                                          Pageable pageable);
+
+    @Query("SELECT sa.id FROM SOSAlert sa WHERE sa.id IN :ids " +
+            "AND sa.alertStatus <> com.vahabvahabov.SilentSignals.model.alert.AlertStatus.ACTIVE")
+    List<Long> findClosedIds(@Param("ids") Collection<Long> ids);
 }
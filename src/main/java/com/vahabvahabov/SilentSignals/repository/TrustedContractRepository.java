@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,4 +17,9 @@ public interface TrustedContractRepository extends JpaRepository<TrustedContact,
 
     @Query("SELECT tc FROM TrustedContact tc WHERE tc.user.id = :userId AND tc.email = :email")
     Optional<TrustedContact> findByUserIdAndEmail(@Param("userId") Long userId, @Param("email") String email);
+
+    List<TrustedContact> findByPhoneIsNotNullAndPhoneE164IsNullAndPhoneInvalidFalse();
+
+    @Query("SELECT tc FROM TrustedContact tc WHERE tc.user.id IN :userIds AND tc.active = true ORDER BY tc.priorityOrder")
+    List<TrustedContact> findActiveByUserIdIn(@Param("userIds") Collection<Long> userIds);
 }
\ No newline at end of file
@@ -2,10 +2,12 @@ package com.vahabvahabov.SilentSignals.repository;
 
 import com.vahabvahabov.SilentSignals.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -15,4 +17,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(@Param("username") String username);
 
     Optional<User> findByMail(String mail);
+
+    // Only users whose tokens were ever revoked; everyone else is implicitly at version 0.
+    @Query("SELECT u.id, u.tokenVersion FROM User u WHERE u.tokenVersion > 0")
+    List<Object[]> findRevokedTokenVersions();
+
+    // Only replaces the hash it was computed from, so a concurrent password reset wins.
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.id = :id AND u.password = :currentHash")
+    int replacePasswordHash(@Param("id") Long id,
+                            @Param("currentHash") String currentHash,
+                            @Param("newHash") String newHash);
 }
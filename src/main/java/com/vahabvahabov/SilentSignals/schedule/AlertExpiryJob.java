@@ -0,0 +1,29 @@
+package com.vahabvahabov.SilentSignals.schedule;
+
+import com.vahabvahabov.SilentSignals.service.AlertService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Expires alerts nobody resolved. The UPDATE is idempotent, so every node may run it.
+ */
+@Component
+public class AlertExpiryJob {
+
+    private final Logger logger = LoggerFactory.getLogger(AlertExpiryJob.class);
+
+    @Autowired
+    private AlertService alertService;
+
+    @Scheduled(fixedDelayString = "${alert.expiry.check-interval-ms:300000}")
+    public void expireStaleAlerts() {
+        try {
+            alertService.expireStaleAlerts();
+        } catch (Exception e) {
+            logger.error("Failed to expire stale alerts: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.vahabvahabov.SilentSignals.schedule;
+
+import com.vahabvahabov.SilentSignals.repository.SOSAlertRepository;
+import com.vahabvahabov.SilentSignals.service.AlertService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fires each alert's reminder from an in-memory timing wheel at its next_reminder_at instead of
+ * waiting for the next sweep. Timers are armed after the alert (or previous reminder) commits and
+ * rebuilt from the database at startup. Several nodes may hold a timer for the same alert; the
+ * conditional claim in {@link AlertService#sendReminderAlert} lets only one of them send it. The
+ * sharded Quartz sweep stays as a slow fallback for timers lost with a node.
+ */
+@Component
+public class AlertReminderScheduler implements DisposableBean {
+
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final Logger logger = LoggerFactory.getLogger(AlertReminderScheduler.class);
+
+    @Autowired
+    @Lazy
+    private AlertService alertService;
+
+    @Autowired
+    private SOSAlertRepository sosAlertRepository;
+
+    @Value("${alert.reminder.wheel.tick-ms:100}")
+    private long tickMillis;
+
+    @Value("${alert.reminder.wheel.size:64}")
+    private int wheelSize;
+
+    @Value("${alert.reminder.wheel.worker-threads:2}")
+    private int workerThreads;
+
+    @Value("${alert.reminder.page-size:200}")
+    private int pageSize;
+
+    private final Map<Long, TimingWheel.Timeout> timers = new ConcurrentHashMap<>();
+
+    private ExecutorService reminderExecutor;
+
+    private TimingWheel timingWheel;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        reminderExecutor = Executors.newFixedThreadPool(workerThreads,
+                runnable -> new Thread(runnable, "alert-reminder-" + threadNumber.incrementAndGet()));
+        timingWheel = new TimingWheel("alert-reminder", tickMillis, wheelSize, reminderExecutor);
+    }
+
+    public void schedule(Long alertId, LocalDateTime dueAt) {
+        long delayMillis = (Duration.between(LocalDateTime.now(), dueAt).toNanos() + 999_999) / 1_000_000;
+        TimingWheel.Timeout[] timeout = new TimingWheel.Timeout[1];
+        timeout[0] = timingWheel.schedule(() -> fire(alertId, timeout[0]), delayMillis);
+        TimingWheel.Timeout previous = timers.put(alertId, timeout[0]);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    public void cancel(Long alertId) {
+        TimingWheel.Timeout timeout = timers.remove(alertId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    public int getScheduledCount() {
+        return timingWheel.size();
+    }
+
+    private void fire(Long alertId, TimingWheel.Timeout timeout) {
+        timers.remove(alertId, timeout);
+        try {
+            alertService.sendReminderAlert(alertId);
+        } catch (Exception e) {
+            // Left to the Quartz sweep, which retries while next_reminder_at stays due.
+            logger.error("Failed to send reminder for alert ID {}: {}", alertId, e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDateTime afterReminderAt = KEYSET_START;
+        Long afterId = 0L;
+        int restored = 0;
+        List<Object[]> page;
+        do {
+            page = sosAlertRepository.findScheduledReminders(afterReminderAt, afterId, PageRequest.of(0, pageSize));
+            for (Object[] row : page) {
+                afterId = (Long) row[0];
+                afterReminderAt = (LocalDateTime) row[1];
+                if (!timers.containsKey(afterId)) {
+                    schedule(afterId, afterReminderAt);
+                    restored++;
+                }
+            }
+        } while (page.size() == pageSize);
+        logger.info("Restored {} alert reminder timers", restored);
+    }
+
+    @Override
+    public void destroy() {
+        timingWheel.stop();
+        reminderExecutor.shutdown();
+    }
+}
@@ -0,0 +1,177 @@
+package com.vahabvahabov.SilentSignals.schedule;
+
+import com.vahabvahabov.SilentSignals.model.alert.NotificationChannel;
+import com.vahabvahabov.SilentSignals.model.alert.NotificationOutbox;
+import com.vahabvahabov.SilentSignals.model.alert.NotificationResult;
+import com.vahabvahabov.SilentSignals.service.NotificationDispatcher;
+import com.vahabvahabov.SilentSignals.service.NotificationOutboxService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the notification outbox. Runs on a short fixed delay and is also woken up
+ * right after an alert commits, so the first notification does not wait for the next poll.
+ * Each channel is claimed separately and only up to the free capacity of its bulkhead,
+ * so a stalled provider leaves its rows in the outbox instead of holding up other channels.
+ * Drains run on the relay's own thread, never on the shared scheduler thread, because a
+ * CALLER_RUNS bulkhead makes the draining thread send messages itself.
+ */
+@Component
+public class NotificationOutboxRelay implements DisposableBean {
+
+    private final Logger logger = LoggerFactory.getLogger(NotificationOutboxRelay.class);
+
+    @Autowired
+    private NotificationOutboxService notificationOutboxService;
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    @Value("${alert.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${alert.outbox.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMillis;
+
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final AtomicBoolean wakeUpRequested = new AtomicBoolean(false);
+    private final Queue<NotificationResult> completedResults = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private ThreadPoolExecutor drainExecutor;
+
+    @PostConstruct
+    public void init() {
+        // One drain at a time and at most one waiting behind it; a running drain picks up any
+        // wake-up that arrives meanwhile, so further requests can be dropped.
+        drainExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1),
+                new CustomizableThreadFactory("outbox-relay-"), new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    public void wakeUp() {
+        wakeUpRequested.set(true);
+        drainExecutor.execute(this::drain);
+    }
+
+    @Scheduled(fixedDelayString = "${alert.outbox.poll-interval-ms:1000}")
+    public void poll() {
+        drainExecutor.execute(this::drain);
+    }
+
+    @Scheduled(fixedDelayString = "${alert.outbox.stale-check-interval-ms:60000}")
+    public void releaseStaleClaims() {
+        try {
+            notificationOutboxService.releaseStaleClaims();
+        } catch (Exception e) {
+            logger.error("Failed to release stale outbox claims: {}", e.getMessage());
+        }
+    }
+
+    private void drain() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            do {
+                wakeUpRequested.set(false);
+                drainBatches();
+            } while (wakeUpRequested.get());
+        } catch (Exception e) {
+            logger.error("Error while draining notification outbox: {}", e.getMessage(), e);
+        } finally {
+            draining.set(false);
+        }
+    }
+
+    private void drainBatches() {
+        boolean moreAvailable;
+        do {
+            recordCompletedResults();
+            moreAvailable = false;
+            for (NotificationChannel channel : NotificationChannel.values()) {
+                int capacity = Math.min(batchSize, notificationDispatcher.availableCapacity(channel));
+                if (capacity <= 0) {
+                    continue;
+                }
+                List<NotificationOutbox> batch = notificationOutboxService.claimBatch(channel, capacity);
+                for (NotificationOutbox message : batch) {
+                    inFlight.incrementAndGet();
+                    notificationDispatcher.dispatch(message.toTask())
+                            .thenAccept(completedResults::add)
+                            .whenComplete((ignored, error) -> inFlight.decrementAndGet());
+                }
+                moreAvailable |= batch.size() == capacity;
+            }
+        } while (moreAvailable);
+        recordCompletedResults();
+    }
+
+    private void recordCompletedResults() {
+        List<NotificationResult> results = new ArrayList<>();
+        NotificationResult result;
+        while ((result = completedResults.poll()) != null) {
+            results.add(result);
+        }
+        if (results.isEmpty()) {
+            return;
+        }
+        notificationOutboxService.complete(results);
+        logOutcome(results);
+    }
+
+    private void logOutcome(List<NotificationResult> results) {
+        Map<NotificationChannel, Long> delivered = results.stream()
+                .filter(NotificationResult::isSuccess)
+                .collect(Collectors.groupingBy(result -> result.getTask().getChannel(), Collectors.counting()));
+        long failed = results.stream().filter(result -> !result.isSuccess() && !result.isRejected()).count();
+        long deferred = results.stream().filter(NotificationResult::isRejected).count();
+        logger.info("Notifications sent: {} emails, {} SMS messages, {} WebSocket messages ({} failed, {} deferred)",
+                delivered.getOrDefault(NotificationChannel.EMAIL, 0L),
+                delivered.getOrDefault(NotificationChannel.SMS, 0L),
+                delivered.getOrDefault(NotificationChannel.WEBSOCKET, 0L),
+                failed, deferred);
+    }
+
+    /**
+     * Runs before the bulkheads and the outbox service are destroyed (they are dependencies), so
+     * sends still in progress can finish and their outcome is written back. Otherwise their rows
+     * would stay IN_FLIGHT until a stale-claim release re-queues them and the contacts get the
+     * alert twice.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        drainExecutor.shutdown();
+        long deadline = System.currentTimeMillis() + shutdownTimeoutMillis;
+        drainExecutor.awaitTermination(shutdownTimeoutMillis, TimeUnit.MILLISECONDS);
+        while (inFlight.get() > 0 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        if (inFlight.get() > 0) {
+            logger.warn("{} notifications still in flight at shutdown; their claims will expire", inFlight.get());
+        }
+        try {
+            recordCompletedResults();
+        } catch (Exception e) {
+            logger.error("Failed to record notification results at shutdown: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -1,24 +1,30 @@
 package com.vahabvahabov.SilentSignals.schedule;
 
-import com.vahabvahabov.SilentSignals.model.alert.AlertStatus;
 import com.vahabvahabov.SilentSignals.model.alert.SOSAlert;
 import com.vahabvahabov.SilentSignals.repository.SOSAlertRepository;
+import com.vahabvahabov.SilentSignals.security.QuartzConfig;
 import com.vahabvahabov.SilentSignals.service.AlertService;
+import org.quartz.DisallowConcurrentExecution;
 import org.quartz.Job;
+import org.quartz.JobDataMap;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Component
+@DisallowConcurrentExecution
 public class SosAlertReminderJob implements Job {
 
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
     private final Logger logger = LoggerFactory.getLogger(SosAlertReminderJob.class);
 
     @Autowired
@@ -27,58 +33,49 @@ public class SosAlertReminderJob implements Job {
     @Autowired
     private AlertService alertService;
 
+    @Value("${alert.reminder.page-size:200}")
+    private int pageSize;
+
     @Override
-    @Transactional
     public void execute(JobExecutionContext context) throws JobExecutionException {
         try {
-            logger.info("Running SOS Alert Reminder Job at {}", LocalDateTime.now());
-            List<SOSAlert> alertsNeedingReminders = getAlertsNeedingReminders();
+            JobDataMap jobData = context.getMergedJobDataMap();
+            int shardIndex = jobData.getInt(QuartzConfig.SHARD_INDEX);
+            int shardCount = jobData.getInt(QuartzConfig.SHARD_COUNT);
+            LocalDateTime now = LocalDateTime.now();
+            logger.debug("Running SOS Alert Reminder Job shard {}/{} at {}", shardIndex, shardCount, now);
             int successfulReminders = 0;
             int failedReminders = 0;
-            for (SOSAlert alert : alertsNeedingReminders) {
-                try {
-                    logger.info("Sending reminder for SOS Alert ID: {} (User ID: {})",
-                            alert.getId(), alert.getUser().getId());
-                    alertService.sendReminderAlert(
-                            alert.getUser().getId(),
-                            extractOriginalDescription(alert.getDescription()),
-                            alert.getLocationCoordinates(),
-                            alert.getLocationAddress()
-                    );
-                    successfulReminders++;
-                    logger.info("Reminder sent successfully for alert ID: {}", alert.getId());
 
-                } catch (Exception e) {
-                    failedReminders++;
-                    logger.error("Failed to send reminder for alert ID {}: {}", alert.getId(), e.getMessage());
+            // Sent reminders move next_reminder_at past `now` and drop out of the query; failed ones
+            // keep their slot, so page by (next_reminder_at, id) instead of by offset.
+            LocalDateTime afterReminderAt = KEYSET_START;
+            Long afterId = 0L;
+            List<SOSAlert> page;
+            do {
+                page = sosAlertRepository.findDueForReminder(shardCount, shardIndex, now,
+                        afterReminderAt, afterId, PageRequest.of(0, pageSize));
+                if (!page.isEmpty()) {
+                    List<Long> alertIds = page.stream().map(SOSAlert::getId).toList();
+                    try {
+                        successfulReminders += alertService.sendReminderAlerts(alertIds);
+                    } catch (Exception e) {
+                        failedReminders += alertIds.size();
+                        logger.error("Failed to send reminders for {} alerts: {}", alertIds.size(), e.getMessage());
+                    }
+                    SOSAlert last = page.get(page.size() - 1);
+                    afterReminderAt = last.getNextReminderAt();
+                    afterId = last.getId();
                 }
+            } while (page.size() == pageSize);
+
+            if (successfulReminders + failedReminders > 0) {
+                logger.info("SOS Alert Reminder Job shard {}/{} completed. Sent: {}, Failed: {}",
+                        shardIndex, shardCount, successfulReminders, failedReminders);
             }
-            logger.info("SOS Alert Reminder Job completed. Success: {}, Failed: {}, Total: {}",
-                    successfulReminders, failedReminders, alertsNeedingReminders.size());
         } catch (Exception e) {
             logger.error("Error in SOS Alert Reminder Job: {}", e.getMessage(), e);
             throw new JobExecutionException("Failed to execute SOS Alert Reminder Job", e, false);
         }
     }
-
-
-    private List<SOSAlert> getAlertsNeedingReminders() {
-        List<SOSAlert> activeAlerts = sosAlertRepository.findByAlertStatus(AlertStatus.ACTIVE);
-
-        return activeAlerts.stream()
-                .filter(alert -> {
-                    boolean needsReminder = alert.getTriggeredAt().isBefore(LocalDateTime.now().minusMinutes(5));
-                    boolean isNotReminder = !alert.getDescription().startsWith("REMINDER:");
-                    return needsReminder && isNotReminder;
-                })
-                .collect(java.util.stream.Collectors.toList());
-    }
-
-
-    private String extractOriginalDescription(String description) {
-        if (description.startsWith("REMINDER: ")) {
-            return description.substring("REMINDER: ".length());
-        }
-        return description;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,289 @@
+package com.vahabvahabov.SilentSignals.schedule;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: O(1) schedule and cancel for large numbers of timers. Each level has
+ * {@code wheelSize} buckets; a level's whole span is one bucket of the next, coarser level, and
+ * timers cascade down as the clock approaches them. Only non-empty buckets are queued, so an idle
+ * wheel costs nothing. Tasks never run before their deadline and are handed to {@code taskExecutor}
+ * so a slow task cannot hold up the clock.
+ */
+public class TimingWheel {
+
+    private final Logger logger = LoggerFactory.getLogger(TimingWheel.class);
+
+    private final String name;
+    private final long tickMillis;
+    private final Executor taskExecutor;
+    private final DelayQueue<Bucket> bucketQueue = new DelayQueue<>();
+    private final ReentrantReadWriteLock clockLock = new ReentrantReadWriteLock();
+    private final AtomicInteger size = new AtomicInteger();
+    private final Level root;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    public TimingWheel(String name, long tickMillis, int wheelSize, Executor taskExecutor) {
+        this.name = name;
+        this.tickMillis = tickMillis;
+        this.taskExecutor = taskExecutor;
+        this.root = new Level(tickMillis, wheelSize, System.currentTimeMillis());
+        this.worker = new Thread(this::run, name + "-timing-wheel");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public Timeout schedule(Runnable task, long delayMillis) {
+        long deadline = System.currentTimeMillis() + Math.max(delayMillis, 0);
+        // Round up to a tick boundary so a timer can fire late by up to one tick but never early.
+        long expiration = (deadline + tickMillis - 1) / tickMillis * tickMillis;
+        TimerEntry entry = new TimerEntry(task, expiration, size);
+        size.incrementAndGet();
+
+        clockLock.readLock().lock();
+        try {
+            addOrRun(entry);
+        } finally {
+            clockLock.readLock().unlock();
+        }
+        return entry;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Bucket bucket = bucketQueue.poll(200, TimeUnit.MILLISECONDS);
+                if (bucket == null) {
+                    continue;
+                }
+                clockLock.writeLock().lock();
+                try {
+                    while (bucket != null) {
+                        root.advanceClock(bucket.getExpiration());
+                        bucket.flush(this::addOrRun);
+                        bucket = bucketQueue.poll();
+                    }
+                } finally {
+                    clockLock.writeLock().unlock();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Timing wheel {} failed to advance: {}", name, e.getMessage(), e);
+            }
+        }
+    }
+
+    private void addOrRun(TimerEntry entry) {
+        if (!root.add(entry) && entry.markExpired()) {
+            size.decrementAndGet();
+            try {
+                taskExecutor.execute(entry.task);
+            } catch (Exception e) {
+                logger.error("Timing wheel {} could not run an expired task: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    public interface Timeout {
+
+        /**
+         * Returns false if the task has already run or was cancelled before.
+         */
+        boolean cancel();
+    }
+
+    private final class Level {
+
+        private final long tickMillis;
+        private final int wheelSize;
+        private final long interval;
+        private final Bucket[] buckets;
+        private long currentTime;
+        private volatile Level overflow;
+
+        private Level(long tickMillis, int wheelSize, long startMillis) {
+            this.tickMillis = tickMillis;
+            this.wheelSize = wheelSize;
+            this.interval = tickMillis * wheelSize;
+            this.buckets = new Bucket[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new Bucket();
+            }
+            this.currentTime = startMillis - (startMillis % tickMillis);
+        }
+
+        /**
+         * Returns false if the entry is already due (or cancelled) and should not be stored.
+         */
+        private boolean add(TimerEntry entry) {
+            long expiration = entry.expiration;
+            if (entry.isDone() || expiration < currentTime + tickMillis) {
+                return false;
+            }
+            if (expiration < currentTime + interval) {
+                long virtualId = expiration / tickMillis;
+                Bucket bucket = buckets[(int) (virtualId % wheelSize)];
+                bucket.add(entry);
+                if (bucket.setExpiration(virtualId * tickMillis)) {
+                    bucketQueue.offer(bucket);
+                }
+                return true;
+            }
+            return overflow().add(entry);
+        }
+
+        private Level overflow() {
+            Level level = overflow;
+            if (level == null) {
+                synchronized (this) {
+                    level = overflow;
+                    if (level == null) {
+                        level = new Level(interval, wheelSize, currentTime);
+                        overflow = level;
+                    }
+                }
+            }
+            return level;
+        }
+
+        private void advanceClock(long timeMillis) {
+            if (timeMillis >= currentTime + tickMillis) {
+                currentTime = timeMillis - (timeMillis % tickMillis);
+                Level level = overflow;
+                if (level != null) {
+                    level.advanceClock(currentTime);
+                }
+            }
+        }
+    }
+
+    private static final class Bucket implements Delayed {
+
+        private final AtomicLong expiration = new AtomicLong(-1);
+        private final TimerEntry head = new TimerEntry(null, -1, null);
+
+        private Bucket() {
+            head.next = head;
+            head.prev = head;
+        }
+
+        private synchronized void add(TimerEntry entry) {
+            entry.bucket = this;
+            entry.next = head;
+            entry.prev = head.prev;
+            head.prev.next = entry;
+            head.prev = entry;
+        }
+
+        private synchronized void remove(TimerEntry entry) {
+            if (entry.bucket == this) {
+                entry.next.prev = entry.prev;
+                entry.prev.next = entry.next;
+                entry.next = null;
+                entry.prev = null;
+                entry.bucket = null;
+            }
+        }
+
+        private void flush(Consumer<TimerEntry> consumer) {
+            List<TimerEntry> entries = new ArrayList<>();
+            synchronized (this) {
+                TimerEntry entry = head.next;
+                while (entry != head) {
+                    TimerEntry next = entry.next;
+                    remove(entry);
+                    entries.add(entry);
+                    entry = next;
+                }
+                expiration.set(-1);
+            }
+            entries.forEach(consumer);
+        }
+
+        /**
+         * Returns true if the bucket's expiration changed, i.e. it must be (re)queued.
+         */
+        private boolean setExpiration(long expirationMillis) {
+            return expiration.getAndSet(expirationMillis) != expirationMillis;
+        }
+
+        private long getExpiration() {
+            return expiration.get();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Math.max(getExpiration() - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getExpiration(), ((Bucket) other).getExpiration());
+        }
+    }
+
+    private static final class TimerEntry implements Timeout {
+
+        private static final int PENDING = 0;
+        private static final int EXPIRED = 1;
+        private static final int CANCELLED = 2;
+
+        private final Runnable task;
+        private final long expiration;
+        private final AtomicInteger wheelSize;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private volatile Bucket bucket;
+        private TimerEntry next;
+        private TimerEntry prev;
+
+        private TimerEntry(Runnable task, long expiration, AtomicInteger wheelSize) {
+            this.task = task;
+            this.expiration = expiration;
+            this.wheelSize = wheelSize;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED)) {
+                return false;
+            }
+            wheelSize.decrementAndGet();
+            Bucket current = bucket;
+            if (current != null) {
+                current.remove(this);
+            }
+            return true;
+        }
+
+        private boolean markExpired() {
+            return state.compareAndSet(PENDING, EXPIRED);
+        }
+
+        private boolean isDone() {
+            return state.get() != PENDING;
+        }
+    }
+}
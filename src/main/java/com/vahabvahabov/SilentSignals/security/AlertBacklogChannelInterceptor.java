@@ -0,0 +1,68 @@
+package com.vahabvahabov.SilentSignals.security;
+
+import com.vahabvahabov.SilentSignals.service.OfflineAlertInbox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.simp.user.UserDestinationMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Pushes the alerts queued while a recipient was offline as soon as they subscribe to
+ * {@code /user/topic/alerts}, so clients need nothing beyond that subscription. The push waits
+ * until the user destination handler has registered the subscription with the broker; sent any
+ * earlier, the drained alerts would reach no one and be lost.
+ */
+@Component
+public class AlertBacklogChannelInterceptor implements ExecutorChannelInterceptor {
+
+    private static final String ALERTS_DESTINATION = "/topic/alerts";
+
+    private final Logger logger = LoggerFactory.getLogger(AlertBacklogChannelInterceptor.class);
+
+    @Autowired
+    private OfflineAlertInbox offlineAlertInbox;
+
+    // Lazy: the messaging template is built by the broker configuration this interceptor is part of.
+    @Autowired
+    @Lazy
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        if (ex != null || !(handler instanceof UserDestinationMessageHandler)) {
+            return;
+        }
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || !StompCommand.SUBSCRIBE.equals(accessor.getCommand())
+                || !("/user" + ALERTS_DESTINATION).equals(accessor.getDestination())) {
+            return;
+        }
+        Principal user = accessor.getUser();
+        if (user == null) {
+            return;
+        }
+
+        List<String> backlog = offlineAlertInbox.drain(user.getName());
+        if (backlog.isEmpty()) {
+            return;
+        }
+        // To every subscribed session of the user: a session subscribing later finds the inbox empty.
+        for (String payload : backlog) {
+            messagingTemplate.convertAndSendToUser(user.getName(), ALERTS_DESTINATION, payload);
+        }
+        logger.info("Delivered {} queued alerts to {}", backlog.size(), user.getName());
+    }
+}
@@ -0,0 +1,85 @@
+package com.vahabvahabov.SilentSignals.security;
+
+import com.vahabvahabov.SilentSignals.exception.BulkheadFullException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    @Bean(name = "emailBulkhead")
+    public ChannelBulkhead emailBulkhead(
+            @Value("${alert.dispatch.email.pool-size:4}") int poolSize,
+            @Value("${alert.dispatch.email.queue-capacity:200}") int queueCapacity,
+            @Value("${alert.dispatch.email.overflow-policy:REJECT}") ChannelBulkhead.OverflowPolicy overflowPolicy,
+            @Value("${alert.dispatch.email.block-timeout-ms:500}") long blockTimeoutMillis) {
+        return new ChannelBulkhead("email", poolSize, queueCapacity, overflowPolicy, blockTimeoutMillis);
+    }
+
+    @Bean(name = "smsBulkhead")
+    public ChannelBulkhead smsBulkhead(
+            @Value("${alert.dispatch.sms.pool-size:4}") int poolSize,
+            @Value("${alert.dispatch.sms.queue-capacity:200}") int queueCapacity,
+            @Value("${alert.dispatch.sms.overflow-policy:REJECT}") ChannelBulkhead.OverflowPolicy overflowPolicy,
+            @Value("${alert.dispatch.sms.block-timeout-ms:500}") long blockTimeoutMillis) {
+        return new ChannelBulkhead("sms", poolSize, queueCapacity, overflowPolicy, blockTimeoutMillis);
+    }
+
+    @Bean(name = "websocketBulkhead")
+    public ChannelBulkhead websocketBulkhead(
+            @Value("${alert.dispatch.websocket.pool-size:2}") int poolSize,
+            @Value("${alert.dispatch.websocket.queue-capacity:500}") int queueCapacity,
+            @Value("${alert.dispatch.websocket.overflow-policy:CALLER_RUNS}") ChannelBulkhead.OverflowPolicy overflowPolicy,
+            @Value("${alert.dispatch.websocket.block-timeout-ms:500}") long blockTimeoutMillis) {
+        return new ChannelBulkhead("websocket", poolSize, queueCapacity, overflowPolicy, blockTimeoutMillis);
+    }
+
+    // bcrypt is CPU-bound: keep it off request threads and turn callers away once the queue is full.
+    @Bean(name = "passwordHashingBulkhead")
+    public ChannelBulkhead passwordHashingBulkhead(
+            @Value("${security.password-hashing.pool-size:2}") int poolSize,
+            @Value("${security.password-hashing.queue-capacity:50}") int queueCapacity) {
+        return new ChannelBulkhead("password-hashing", poolSize, queueCapacity, ChannelBulkhead.OverflowPolicy.REJECT, 0);
+    }
+
+    // @Async("pinMailExecutor"): a burst of PIN requests gets 503 once the queue is full instead of
+    // piling up in memory.
+    @Bean(name = "pinMailExecutor")
+    public ThreadPoolTaskExecutor pinMailExecutor(
+            @Value("${async.pin-mail.pool-size:2}") int poolSize,
+            @Value("${async.pin-mail.queue-capacity:100}") int queueCapacity) {
+        return boundedExecutor("pin-mail", poolSize, queueCapacity, (task, executor) -> {
+            throw new BulkheadFullException("pin-mail");
+        });
+    }
+
+    // Default executor for @Async without a qualifier. Background chores are never dropped: when the
+    // queue is full the caller runs them itself.
+    @Bean(name = {"housekeepingExecutor", "taskExecutor"})
+    public ThreadPoolTaskExecutor housekeepingExecutor(
+            @Value("${async.housekeeping.pool-size:2}") int poolSize,
+            @Value("${async.housekeeping.queue-capacity:500}") int queueCapacity) {
+        return boundedExecutor("housekeeping", poolSize, queueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    // Queue depth and active threads are published by Spring Boot as executor.queued and
+    // executor.active, tagged with the bean name.
+    private static ThreadPoolTaskExecutor boundedExecutor(String name, int poolSize, int queueCapacity,
+                                                          RejectedExecutionHandler rejectionPolicy) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(name + "-async-");
+        executor.setRejectedExecutionHandler(rejectionPolicy);
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -0,0 +1,158 @@
+package com.vahabvahabov.SilentSignals.security;
+
+import com.vahabvahabov.SilentSignals.exception.BulkheadFullException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A fixed-size worker pool with its own bounded queue, so that a slow provider only
+ * backs up the channel it belongs to. What happens when the queue is full is decided
+ * by the {@link OverflowPolicy}. Tasks run with the submitter's MDC and security context.
+ */
+public class ChannelBulkhead implements MeterBinder, DisposableBean {
+
+    private static final TaskDecorator CONTEXT_PROPAGATION = new ContextPropagatingTaskDecorator();
+
+    public enum OverflowPolicy {
+        /** Run the task on the submitting thread. */
+        CALLER_RUNS,
+        /** Fail the task immediately with {@link BulkheadFullException}. */
+        REJECT,
+        /** Wait up to the configured timeout for queue space, then reject. */
+        BLOCK,
+        /** Fail the oldest queued task and queue the new one in its place. */
+        DISCARD_OLDEST
+    }
+
+    private final String name;
+    private final ArrayBlockingQueue<Runnable> queue;
+    private final ThreadPoolExecutor executor;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutMillis;
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    public ChannelBulkhead(String name, int poolSize, int queueCapacity,
+                           OverflowPolicy overflowPolicy, long blockTimeoutMillis) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, queue,
+                new CustomizableThreadFactory(name + "-bulkhead-"), new ThreadPoolExecutor.AbortPolicy());
+        this.executor.prestartAllCoreThreads();
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMillis = blockTimeoutMillis;
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        BulkheadTask<T> task = new BulkheadTask<>(work);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            handleOverflow(task);
+        }
+        return task.future;
+    }
+
+    private void handleOverflow(BulkheadTask<?> task) {
+        switch (overflowPolicy) {
+            case CALLER_RUNS -> task.run();
+            case REJECT -> reject(task);
+            case BLOCK -> {
+                try {
+                    if (!queue.offer(task, blockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                        reject(task);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    reject(task);
+                }
+            }
+            case DISCARD_OLDEST -> {
+                Runnable oldest = queue.poll();
+                if (oldest instanceof BulkheadTask<?> discarded) {
+                    reject(discarded);
+                }
+                if (!queue.offer(task)) {
+                    reject(task);
+                }
+            }
+        }
+    }
+
+    private void reject(BulkheadTask<?> task) {
+        rejectedCount.incrementAndGet();
+        task.future.completeExceptionally(new BulkheadFullException(name));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getRemainingCapacity() {
+        return queue.remainingCapacity() + Math.max(0, executor.getMaximumPoolSize() - executor.getActiveCount());
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("alert.dispatch.queue.depth", this, ChannelBulkhead::getQueueDepth)
+                .tag("channel", name)
+                .register(registry);
+        Gauge.builder("alert.dispatch.active", this, ChannelBulkhead::getActiveCount)
+                .tag("channel", name)
+                .register(registry);
+        FunctionCounter.builder("alert.dispatch.rejected", this, ChannelBulkhead::getRejectedCount)
+                .tag("channel", name)
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private static final class BulkheadTask<T> implements Runnable {
+
+        private final Runnable body;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private BulkheadTask(Supplier<T> work) {
+            this.body = CONTEXT_PROPAGATION.decorate(() -> {
+                try {
+                    future.complete(work.get());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        }
+
+        @Override
+        public void run() {
+            body.run();
+        }
+    }
+}
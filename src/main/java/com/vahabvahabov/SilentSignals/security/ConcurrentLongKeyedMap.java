@@ -0,0 +1,202 @@
+package com.vahabvahabov.SilentSignals.security;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+
+/**
+ * Concurrent map from primitive {@code long} keys to values, without boxed keys or per-entry
+ * nodes. Keys are spread over stripes; each stripe is a linear-probing table guarded by a
+ * {@link StampedLock}. Lookups are optimistic reads that only fall back to a read lock if a writer
+ * raced them; inserts, removals and resizes take the stripe's write lock.
+ */
+public class ConcurrentLongKeyedMap<V> {
+
+    private static final int INITIAL_STRIPE_CAPACITY = 16;
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private final Stripe<V>[] stripes;
+    private final int stripeMask;
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentLongKeyedMap(int concurrencyLevel) {
+        int stripeCount = Integer.highestOneBit(Math.max(1, concurrencyLevel - 1)) << 1;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe<>();
+        }
+        this.stripeMask = stripeCount - 1;
+    }
+
+    public V get(long key) {
+        long hash = hash(key);
+        return stripeFor(hash).get(key, hash);
+    }
+
+    public V computeIfAbsent(long key, LongFunction<V> factory) {
+        long hash = hash(key);
+        Stripe<V> stripe = stripeFor(hash);
+        V value = stripe.get(key, hash);
+        return value != null ? value : stripe.putIfAbsent(key, hash, factory);
+    }
+
+    /**
+     * Removes every entry whose value matches; returns how many were removed. The predicate runs
+     * under the stripe's write lock, so it sees no concurrent insert or removal for that stripe.
+     */
+    public int removeIf(Predicate<V> predicate) {
+        int removed = 0;
+        for (Stripe<V> stripe : stripes) {
+            removed += stripe.removeIf(predicate);
+        }
+        return removed;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe<V> stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+    private Stripe<V> stripeFor(long hash) {
+        return stripes[(int) (hash >>> 32) & stripeMask];
+    }
+
+    private static long hash(long key) {
+        long hash = key * GOLDEN_RATIO;
+        return hash ^ (hash >>> 29);
+    }
+
+    private static final class Stripe<V> {
+
+        private final StampedLock lock = new StampedLock();
+        private long[] keys = new long[INITIAL_STRIPE_CAPACITY];
+        private Object[] values = new Object[INITIAL_STRIPE_CAPACITY];
+        private volatile int size;
+
+        private V get(long key, long hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                long[] currentKeys = keys;
+                Object[] currentValues = values;
+                // A resize may be half visible; mismatched arrays are discarded by validate().
+                V value = currentKeys.length == currentValues.length
+                        ? find(currentKeys, currentValues, key, hash) : null;
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return find(keys, values, key, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private V putIfAbsent(long key, long hash, LongFunction<V> factory) {
+            long stamp = lock.writeLock();
+            try {
+                V existing = find(keys, values, key, hash);
+                if (existing != null) {
+                    return existing;
+                }
+                if ((size + 1) * 2 > keys.length) {
+                    resize(keys.length * 2);
+                }
+                V value = factory.apply(key);
+                insert(keys, values, key, hash, value);
+                size++;
+                return value;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private int removeIf(Predicate<V> predicate) {
+            long stamp = lock.writeLock();
+            try {
+                long[] oldKeys = keys;
+                Object[] oldValues = values;
+                // The predicate is tested exactly once per entry: callers may rely on side effects.
+                boolean[] matched = new boolean[oldValues.length];
+                int removed = 0;
+                for (int i = 0; i < oldValues.length; i++) {
+                    if (oldValues[i] != null && predicate.test(cast(oldValues[i]))) {
+                        matched[i] = true;
+                        removed++;
+                    }
+                }
+                if (removed == 0) {
+                    return 0;
+                }
+                // Rebuild rather than delete in place: linear probing would otherwise need
+                // tombstones or backward shifting, and the sweep touches every slot anyway.
+                int remaining = size - removed;
+                int capacity = INITIAL_STRIPE_CAPACITY;
+                while (remaining * 2 > capacity) {
+                    capacity <<= 1;
+                }
+                long[] newKeys = new long[capacity];
+                Object[] newValues = new Object[capacity];
+                for (int i = 0; i < oldValues.length; i++) {
+                    if (oldValues[i] != null && !matched[i]) {
+                        insert(newKeys, newValues, oldKeys[i], hash(oldKeys[i]), oldValues[i]);
+                    }
+                }
+                keys = newKeys;
+                values = newValues;
+                size = remaining;
+                return removed;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void resize(int capacity) {
+            long[] newKeys = new long[capacity];
+            Object[] newValues = new Object[capacity];
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    insert(newKeys, newValues, keys[i], hash(keys[i]), values[i]);
+                }
+            }
+            keys = newKeys;
+            values = newValues;
+        }
+
+        private static <V> V find(long[] keys, Object[] values, long key, long hash) {
+            int mask = values.length - 1;
+            int index = (int) hash & mask;
+            // Bounded so a torn optimistic read can never spin forever; validate() discards it.
+            for (int probes = 0; probes < values.length; probes++) {
+                Object value = values[index];
+                if (value == null) {
+                    return null;
+                }
+                if (keys[index] == key) {
+                    return cast(value);
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        private static void insert(long[] keys, Object[] values, long key, long hash, Object value) {
+            int mask = values.length - 1;
+            int index = (int) hash & mask;
+            while (values[index] != null) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = key;
+            values[index] = value;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> V cast(Object value) {
+            return (V) value;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.vahabvahabov.SilentSignals.security;
+
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Map;
+
+/**
+ * Carries the submitting thread's MDC and security context over to the worker thread, and puts
+ * back whatever the worker had before once the task is done. Restoring rather than clearing keeps
+ * caller-runs overflow, where the submitting thread runs the task itself, safe.
+ */
+public class ContextPropagatingTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        Map<String, String> contextMap = MDC.getCopyOfContextMap();
+        SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+        securityContext.setAuthentication(SecurityContextHolder.getContext().getAuthentication());
+        return () -> {
+            Map<String, String> previousContextMap = MDC.getCopyOfContextMap();
+            SecurityContext previousSecurityContext = SecurityContextHolder.getContext();
+            apply(contextMap);
+            SecurityContextHolder.setContext(securityContext);
+            try {
+                runnable.run();
+            } finally {
+                apply(previousContextMap);
+                SecurityContextHolder.setContext(previousSecurityContext);
+            }
+        };
+    }
+
+    private static void apply(Map<String, String> contextMap) {
+        if (contextMap == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(contextMap);
+        }
+    }
+}
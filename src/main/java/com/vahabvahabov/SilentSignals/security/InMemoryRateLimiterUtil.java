@@ -1,69 +1,203 @@
 package com.vahabvahabov.SilentSignals.security;
 
-import org.springframework.context.annotation.Primary;
+import com.vahabvahabov.SilentSignals.service.RateLimiter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
+/**
+ * Sliding-window counter per user, updated with a single CAS on a packed long:
+ * {@code windowIndex << 24 | previousCount << 12 | currentCount}. A request is admitted while
+ * {@code previousCount * (1 - elapsedFractionOfWindow) + currentCount < limit}, which avoids the
+ * double burst a fixed window allows at its boundary. Counting takes no locks; a lost CAS simply
+ * retries.
+ * <p>
+ * Once a state is two windows old both of its counts are dead weight, so {@link #evictIdleStates}
+ * drops it. Heap use therefore tracks the users active in the last two windows, not every user
+ * who ever sent an alert.
+ * <p>
+ * Counters are per node. With {@code rate.limit.backend=redis} this limiter only answers while
+ * Redis is unreachable; the limits configured here apply to both.
+ */
 @Component
-@Primary
-public class InMemoryRateLimiterUtil {
+public class InMemoryRateLimiterUtil implements RateLimiter, MeterBinder {
 
-    private final Map<Long, RateLimitInfo> rateLimitMap = new ConcurrentHashMap<>();
-    private final int MAX_REQUESTS = 5;
-    private final long WINDOW_MINUTES = 5;
+    static final int MAX_LIMIT = (1 << 12) - 1;
 
-    public boolean isAllowed(Long userId) {
-        long currentTime = System.currentTimeMillis();
-        RateLimitInfo userLimit = rateLimitMap.get(userId);
+    private static final int COUNT_BITS = 12;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final int WINDOW_SHIFT = 2 * COUNT_BITS;
+    // Never a real state: its window index is far beyond any clock reading.
+    private static final long EVICTED = -1L;
 
-        if (userLimit == null) {
-            rateLimitMap.put(userId, new RateLimitInfo(1, currentTime));
-            return true;
-        }
+    private final Logger logger = LoggerFactory.getLogger(InMemoryRateLimiterUtil.class);
 
-        long timeElapsed = currentTime - userLimit.getStartTime();
-        long windowInMillis = TimeUnit.MINUTES.toMillis(WINDOW_MINUTES);
+    private final ConcurrentLongKeyedMap<AtomicLong> states =
+            new ConcurrentLongKeyedMap<>(Runtime.getRuntime().availableProcessors() * 4);
+    private final Map<Long, Integer> userLimits = new ConcurrentHashMap<>();
+    private final int defaultLimit;
+    private final long windowMillis;
+    private final LongSupplier clock;
 
-        if (timeElapsed > windowInMillis) {
-            rateLimitMap.put(userId, new RateLimitInfo(1, currentTime));
-            return true;
-        } else {
-            if (userLimit.getCount() < MAX_REQUESTS) {
-                userLimit.incrementCount();
+    @Autowired
+    public InMemoryRateLimiterUtil(@Value("${rate.limit.max:5}") int defaultLimit,
+                                   @Value("${rate.limit.window.minutes:5}") long windowMinutes,
+                                   @Value("#{${rate.limit.user-overrides:{:}}}") Map<Long, Integer> userOverrides) {
+        this(defaultLimit, TimeUnit.MINUTES.toMillis(windowMinutes), userOverrides, System::currentTimeMillis);
+    }
+
+    InMemoryRateLimiterUtil(int defaultLimit, long windowMillis, Map<Long, Integer> userOverrides, LongSupplier clock) {
+        this.defaultLimit = checkLimit(defaultLimit);
+        this.windowMillis = windowMillis;
+        this.clock = clock;
+        userOverrides.forEach(this::setUserLimit);
+    }
+
+    @Override
+    public boolean isAllowed(Long userId) {
+        int limit = getLimit(userId);
+        AtomicLong state = states.computeIfAbsent(userId, id -> new AtomicLong());
+        while (true) {
+            long now = clock.getAsLong();
+            long current = state.get();
+            if (current == EVICTED) {
+                // The sweeper unlinked this state after we looked it up; start from the fresh one.
+                state = states.computeIfAbsent(userId, id -> new AtomicLong());
+                continue;
+            }
+            long rolled = roll(current, now / windowMillis);
+            long currentCount = rolled & COUNT_MASK;
+            if (estimate(rolled, now) >= limit || currentCount >= limit) {
+                // Persist the roll-over so later readers see the new window, but don't admit.
+                if (rolled == current || state.compareAndSet(current, rolled)) {
+                    return false;
+                }
+                continue;
+            }
+            if (state.compareAndSet(current, rolled + 1)) {
                 return true;
-            } else {
-                return false;
             }
         }
     }
 
+    @Override
+    public boolean wouldAllow(Long userId) {
+        long current = currentState(userId);
+        if (current == EVICTED) {
+            return true;
+        }
+        long now = clock.getAsLong();
+        long rolled = roll(current, now / windowMillis);
+        int limit = getLimit(userId);
+        return estimate(rolled, now) < limit && (rolled & COUNT_MASK) < limit;
+    }
+
+    @Override
     public Long getTimeUntilReset(Long userId) {
-        RateLimitInfo userLimit = rateLimitMap.get(userId);
-        if (userLimit == null) {
+        long current = currentState(userId);
+        if (current == EVICTED) {
             return 0L;
         }
+        long now = clock.getAsLong();
+        long windowIndex = now / windowMillis;
+        long rolled = roll(current, windowIndex);
+        int limit = getLimit(userId);
+        long previousCount = (rolled >>> COUNT_BITS) & COUNT_MASK;
+        long currentCount = rolled & COUNT_MASK;
+        long elapsed = now - windowIndex * windowMillis;
 
-        long currentTime = System.currentTimeMillis();
-        long timeElapsed = currentTime - userLimit.getStartTime();
-        long windowInMillis = TimeUnit.MINUTES.toMillis(WINDOW_MINUTES);
+        long waitMillis;
+        if (currentCount >= limit) {
+            // Wait for the next window, then until this window's weight has decayed enough.
+            double fraction = 1.0 - (double) (limit - 1) / currentCount;
+            waitMillis = (windowMillis - elapsed) + (long) Math.ceil(fraction * windowMillis);
+        } else if (previousCount > 0 && previousCount * (windowMillis - elapsed) / (double) windowMillis + currentCount >= limit) {
+            double fraction = 1.0 - (double) (limit - 1 - currentCount) / previousCount;
+            waitMillis = (long) Math.ceil(fraction * windowMillis) - elapsed;
+        } else {
+            waitMillis = 0;
+        }
+        return Math.max(0, (waitMillis + 999) / 1000);
+    }
 
-        return Math.max(0, (windowInMillis - timeElapsed) / 1000);
+    public void setUserLimit(Long userId, int limit) {
+        userLimits.put(userId, checkLimit(limit));
     }
 
-    private static class RateLimitInfo {
-        private int count;
-        private long startTime;
+    public int getLimit(Long userId) {
+        return userLimits.getOrDefault(userId, defaultLimit);
+    }
 
-        public RateLimitInfo(int count, long startTime) {
-            this.count = count;
-            this.startTime = startTime;
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    public int getTrackedUserCount() {
+        return states.size();
+    }
+
+    /**
+     * Drops states whose window is at least two behind the clock. A state is only dropped if it can
+     * be swapped to {@link #EVICTED}, so an admission racing the sweep either lands first (and the
+     * state survives) or sees the marker and re-creates the entry.
+     */
+    @Scheduled(fixedDelayString = "${rate.limit.sweep-interval-ms:60000}")
+    public void evictIdleStates() {
+        long windowIndex = clock.getAsLong() / windowMillis;
+        int evicted = states.removeIf(state -> {
+            long current = state.get();
+            return (current >>> WINDOW_SHIFT) < windowIndex - 1 && state.compareAndSet(current, EVICTED);
+        });
+        if (evicted > 0) {
+            logger.debug("Evicted {} idle rate limiter states, {} still tracked", evicted, states.size());
         }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("rate.limiter.tracked.users", this, InMemoryRateLimiterUtil::getTrackedUserCount)
+                .register(registry);
+    }
 
-        public int getCount() { return count; }
-        public long getStartTime() { return startTime; }
-        public void incrementCount() { this.count++; }
+    private long currentState(Long userId) {
+        AtomicLong state = states.get(userId);
+        return state == null ? EVICTED : state.get();
+    }
+
+    private long roll(long state, long windowIndex) {
+        long stateWindow = state >>> WINDOW_SHIFT;
+        if (stateWindow >= windowIndex) {
+            // Same window, or the clock stepped back: keep counting where we were.
+            return state;
+        }
+        long previousCount = stateWindow == windowIndex - 1 ? state & COUNT_MASK : 0;
+        return (windowIndex << WINDOW_SHIFT) | (previousCount << COUNT_BITS);
+    }
+
+    private double estimate(long state, long now) {
+        long windowIndex = state >>> WINDOW_SHIFT;
+        long previousCount = (state >>> COUNT_BITS) & COUNT_MASK;
+        long currentCount = state & COUNT_MASK;
+        long elapsed = now - windowIndex * windowMillis;
+        return previousCount * (double) (windowMillis - elapsed) / windowMillis + currentCount;
+    }
+
+    private static int checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Rate limit must be between 1 and " + MAX_LIMIT + ": " + limit);
+        }
+        return limit;
     }
-}
\ No newline at end of file
+}
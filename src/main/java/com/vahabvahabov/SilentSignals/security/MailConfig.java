@@ -0,0 +1,45 @@
+package com.vahabvahabov.SilentSignals.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Properties;
+
+@Configuration
+@EnableConfigurationProperties(MailProperties.class)
+public class MailConfig {
+
+    @Value("${mail.pool.size:3}")
+    private int poolSize;
+
+    @Value("${mail.pool.max-idle-ms:60000}")
+    private long maxIdleMillis;
+
+    @Value("${mail.pool.validate-after-ms:5000}")
+    private long validateAfterMillis;
+
+    @Value("${mail.pool.borrow-timeout-ms:10000}")
+    private long borrowTimeoutMillis;
+
+    @Bean
+    public PooledJavaMailSender javaMailSender(MailProperties mailProperties) {
+        PooledJavaMailSender sender = new PooledJavaMailSender(poolSize, maxIdleMillis, validateAfterMillis, borrowTimeoutMillis);
+        sender.setHost(mailProperties.getHost());
+        if (mailProperties.getPort() != null) {
+            sender.setPort(mailProperties.getPort());
+        }
+        sender.setUsername(mailProperties.getUsername());
+        sender.setPassword(mailProperties.getPassword());
+        sender.setProtocol(mailProperties.getProtocol());
+        if (mailProperties.getDefaultEncoding() != null) {
+            sender.setDefaultEncoding(mailProperties.getDefaultEncoding().name());
+        }
+        Properties javaMailProperties = new Properties();
+        javaMailProperties.putAll(mailProperties.getProperties());
+        sender.setJavaMailProperties(javaMailProperties);
+        return sender;
+    }
+}
@@ -0,0 +1,198 @@
+package com.vahabvahabov.SilentSignals.security;
+
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link JavaMailSenderImpl} that keeps up to {@code poolSize} authenticated SMTP connections
+ * open between sends instead of opening a new TCP+STARTTLS session for every call. Mail goes
+ * out one message per call, so the gain comes from reusing connections across those single
+ * sends: each message borrows a connection and returns it afterwards. A connection the server
+ * has dropped is replaced and the failed message is retried once on the new one.
+ * A connection is known to be broken when a send fails; it is only probed with a NOOP when it
+ * has been idle longer than {@code validateAfterMillis}.
+ */
+public class PooledJavaMailSender extends JavaMailSenderImpl implements DisposableBean {
+
+    private static final String HEADER_MESSAGE_ID = "Message-ID";
+
+    private final Logger logger = LoggerFactory.getLogger(PooledJavaMailSender.class);
+
+    private final BlockingQueue<PooledTransport> idleTransports;
+    private final Semaphore permits;
+    private final long maxIdleMillis;
+    private final long validateAfterMillis;
+    private final long borrowTimeoutMillis;
+
+    public PooledJavaMailSender(int poolSize, long maxIdleMillis, long validateAfterMillis, long borrowTimeoutMillis) {
+        this.idleTransports = new LinkedBlockingQueue<>(poolSize);
+        this.permits = new Semaphore(poolSize, true);
+        this.maxIdleMillis = maxIdleMillis;
+        this.validateAfterMillis = validateAfterMillis;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+    }
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+        for (int i = 0; i < mimeMessages.length; i++) {
+            Exception failure = sendOne(mimeMessages[i]);
+            if (failure != null) {
+                failedMessages.put(originalMessages != null ? originalMessages[i] : mimeMessages[i], failure);
+            }
+        }
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    // Returns why the message was not sent, or null once it was.
+    private Exception sendOne(MimeMessage mimeMessage) {
+        try {
+            prepare(mimeMessage);
+        } catch (MessagingException ex) {
+            return ex;
+        }
+        PooledTransport transport;
+        try {
+            transport = borrow();
+        } catch (AuthenticationFailedException ex) {
+            throw new MailAuthenticationException(ex);
+        } catch (MessagingException ex) {
+            return ex;
+        }
+        try {
+            sendMessage(transport, mimeMessage);
+            return null;
+        } catch (SendFailedException ex) {
+            // The server rejected this message; the connection is still usable.
+            return ex;
+        } catch (MessagingException | IllegalStateException ex) {
+            logger.debug("SMTP connection lost, reconnecting: {}", ex.getMessage());
+            transport.broken = true;
+            closeQuietly(transport);
+            try {
+                transport = new PooledTransport(connectTransport());
+                sendMessage(transport, mimeMessage);
+                return null;
+            } catch (SendFailedException retryEx) {
+                return retryEx;
+            } catch (Exception retryEx) {
+                transport.broken = true;
+                return retryEx;
+            }
+        } finally {
+            release(transport);
+        }
+    }
+
+    private PooledTransport borrow() throws MessagingException {
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new MailSendException("No SMTP connection available within " + borrowTimeoutMillis + " ms");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for an SMTP connection", ex);
+        }
+
+        try {
+            PooledTransport pooled;
+            while ((pooled = idleTransports.poll()) != null) {
+                // isConnected() costs a NOOP round trip, so only connections idle for a while are probed.
+                long idleMillis = System.currentTimeMillis() - pooled.lastUsedAt;
+                if (idleMillis > maxIdleMillis || (idleMillis > validateAfterMillis && !pooled.transport.isConnected())) {
+                    closeQuietly(pooled);
+                    continue;
+                }
+                return pooled;
+            }
+            return new PooledTransport(connectTransport());
+        } catch (MessagingException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    private void release(PooledTransport transport) {
+        try {
+            if (!transport.broken) {
+                transport.lastUsedAt = System.currentTimeMillis();
+                if (idleTransports.offer(transport)) {
+                    return;
+                }
+            }
+            closeQuietly(transport);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void prepare(MimeMessage mimeMessage) throws MessagingException {
+        if (mimeMessage.getSentDate() == null) {
+            mimeMessage.setSentDate(new Date());
+        }
+        String messageId = mimeMessage.getMessageID();
+        mimeMessage.saveChanges();
+        if (messageId != null) {
+            // Preserve explicitly specified message id...
+            mimeMessage.setHeader(HEADER_MESSAGE_ID, messageId);
+        }
+    }
+
+    private void sendMessage(PooledTransport transport, MimeMessage mimeMessage) throws MessagingException {
+        Address[] addresses = mimeMessage.getAllRecipients();
+        transport.transport.sendMessage(mimeMessage, addresses != null ? addresses : new Address[0]);
+    }
+
+    private void closeQuietly(PooledTransport transport) {
+        try {
+            transport.transport.close();
+        } catch (Exception ex) {
+            logger.debug("Failed to close SMTP connection: {}", ex.getMessage());
+        }
+    }
+
+    public int getIdleConnectionCount() {
+        return idleTransports.size();
+    }
+
+    @Override
+    public void destroy() {
+        PooledTransport pooled;
+        while ((pooled = idleTransports.poll()) != null) {
+            closeQuietly(pooled);
+        }
+    }
+
+    private static final class PooledTransport {
+
+        private final Transport transport;
+        private long lastUsedAt = System.currentTimeMillis();
+        // Set when a send fails for any reason other than the server rejecting the message.
+        private boolean broken;
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+    }
+}
@@ -2,28 +2,84 @@ package com.vahabvahabov.SilentSignals.security;
 
 import com.vahabvahabov.SilentSignals.schedule.SosAlertReminderJob;
 import org.quartz.*;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.quartz.SchedulerFactoryBeanCustomizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The reminder sweep runs as one job per shard (alerts whose user_id % shards == index), each with
+ * its own trigger, so with a clustered job store the shards spread over all nodes and worker
+ * threads while a single shard never runs twice at the same time.
+ */
 @Configuration
 public class QuartzConfig {
 
+    public static final String REMINDER_JOB_GROUP = "sosAlertReminder";
+    public static final String SHARD_INDEX = "shardIndex";
+    public static final String SHARD_COUNT = "shardCount";
+
+    private static final String LEGACY_REMINDER_JOB = "sosAlertReminderJob";
+
+    private final Logger logger = LoggerFactory.getLogger(QuartzConfig.class);
+
+    @Value("${alert.reminder.shards:4}")
+    private int shardCount;
+
+    @Value("${alert.reminder.sweep-interval-seconds:300}")
+    private int sweepIntervalSeconds;
+
     @Bean
-    public JobDetail sosAlertReminderJobDetail() {
-        return JobBuilder.newJob(SosAlertReminderJob.class)
-                .withIdentity("sosAlertReminderJob")
-                .storeDurably()
-                .build();
+    public SchedulerFactoryBeanCustomizer sosAlertReminderShards() {
+        return schedulerFactoryBean -> {
+            List<JobDetail> jobDetails = new ArrayList<>();
+            List<Trigger> triggers = new ArrayList<>();
+            for (int shard = 0; shard < shardCount; shard++) {
+                JobDetail jobDetail = JobBuilder.newJob(SosAlertReminderJob.class)
+                        .withIdentity("shard-" + shard, REMINDER_JOB_GROUP)
+                        .usingJobData(SHARD_INDEX, shard)
+                        .usingJobData(SHARD_COUNT, shardCount)
+                        .storeDurably()
+                        .build();
+                jobDetails.add(jobDetail);
+                triggers.add(TriggerBuilder.newTrigger()
+                        .forJob(jobDetail)
+                        .withIdentity("shard-" + shard, REMINDER_JOB_GROUP)
+                        .withSchedule(SimpleScheduleBuilder.simpleSchedule()
+                                .withIntervalInSeconds(sweepIntervalSeconds)
+                                .repeatForever()
+                                .withMisfireHandlingInstructionNextWithRemainingCount())
+                        .build());
+            }
+            schedulerFactoryBean.setJobDetails(jobDetails.toArray(new JobDetail[0]));
+            schedulerFactoryBean.setTriggers(triggers.toArray(new Trigger[0]));
+            schedulerFactoryBean.setOverwriteExistingJobs(true);
+        };
     }
 
-    @Bean
-    public Trigger sosAlertReminderTrigger() {
-        return TriggerBuilder.newTrigger()
-                .forJob(sosAlertReminderJobDetail())
-                .withIdentity("sosAlertReminderTrigger")
-                .withSchedule(SimpleScheduleBuilder.simpleSchedule()
-                        .withIntervalInMinutes(10)
-                        .repeatForever())
-                .build();
+    /**
+     * The JDBC job store keeps jobs across restarts: drop the old unsharded job and any shards
+     * left over from a larger shard count.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void removeStaleReminderJobs(ApplicationReadyEvent event) throws SchedulerException {
+        Scheduler scheduler = event.getApplicationContext().getBean(Scheduler.class);
+        if (scheduler.deleteJob(JobKey.jobKey(LEGACY_REMINDER_JOB))) {
+            logger.info("Removed legacy job {}", LEGACY_REMINDER_JOB);
+        }
+        for (JobKey jobKey : scheduler.getJobKeys(GroupMatcher.jobGroupEquals(REMINDER_JOB_GROUP))) {
+            int shard = Integer.parseInt(jobKey.getName().substring("shard-".length()));
+            if (shard >= shardCount && scheduler.deleteJob(jobKey)) {
+                logger.info("Removed reminder job {} (shard count is now {})", jobKey, shardCount);
+            }
+        }
     }
-}
\ No newline at end of file
+}
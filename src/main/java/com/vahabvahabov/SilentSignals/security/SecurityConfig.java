@@ -4,7 +4,9 @@ import com.vahabvahabov.SilentSignals.model.User;
 import com.vahabvahabov.SilentSignals.repository.UserRepository;
 import com.vahabvahabov.SilentSignals.security.jwt.JwtRequestFilter;
 import com.vahabvahabov.SilentSignals.security.jwt.JwtUtil;
+import com.vahabvahabov.SilentSignals.security.jwt.PrincipalCache;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -35,9 +37,10 @@ public class SecurityConfig {
         this.corsConfigurationSource = corsConfigurationSource;
     }
 
+    // Raising the strength is picked up at login: older, cheaper hashes are re-encoded.
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.bcrypt.strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     @Bean
@@ -62,9 +65,9 @@ public class SecurityConfig {
     }
 
     @Bean
-    public JwtRequestFilter jwtRequestFilter(UserDetailsService userDetailsService, JwtUtil jwtUtil) {
+    public JwtRequestFilter jwtRequestFilter(PrincipalCache principalCache, JwtUtil jwtUtil) {
         JwtRequestFilter filter = new JwtRequestFilter();
-        filter.setUserDetailsService(userDetailsService);
+        filter.setPrincipalCache(principalCache);
         filter.setJwtUtil(jwtUtil);
         return filter;
     }
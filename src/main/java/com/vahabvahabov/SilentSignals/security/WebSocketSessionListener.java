@@ -0,0 +1,40 @@
+package com.vahabvahabov.SilentSignals.security;
+
+import com.vahabvahabov.SilentSignals.service.UserPresenceRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+
+@Component
+public class WebSocketSessionListener {
+
+    private final Logger logger = LoggerFactory.getLogger(WebSocketSessionListener.class);
+
+    @Autowired
+    private UserPresenceRegistry userPresenceRegistry;
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        Principal user = event.getUser();
+        String sessionId = (String) event.getMessage().getHeaders().get("simpSessionId");
+        if (user != null && sessionId != null) {
+            userPresenceRegistry.sessionConnected(user.getName(), sessionId);
+            logger.debug("WebSocket session {} connected for {}", sessionId, user.getName());
+        }
+    }
+
+    @EventListener
+    public void onDisconnected(SessionDisconnectEvent event) {
+        Principal user = event.getUser();
+        if (user != null) {
+            userPresenceRegistry.sessionDisconnected(user.getName(), event.getSessionId());
+            logger.debug("WebSocket session {} disconnected for {}", event.getSessionId(), user.getName());
+        }
+    }
+}
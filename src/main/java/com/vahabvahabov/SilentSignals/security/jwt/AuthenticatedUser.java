@@ -0,0 +1,53 @@
+package com.vahabvahabov.SilentSignals.security.jwt;
+
+import com.vahabvahabov.SilentSignals.model.User;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Immutable principal for JWT-authenticated requests. Carries only what controllers need to
+ * identify the caller, never the password hash or the entity's lazy associations, so it can be
+ * cached and shared across threads.
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public final class AuthenticatedUser implements UserDetails {
+
+    private final Long id;
+    private final String username;
+    private final String mail;
+    private final boolean emailVerified;
+
+    public AuthenticatedUser(Long id, String username, String mail, boolean emailVerified) {
+        this.id = id;
+        this.username = username;
+        this.mail = mail;
+        this.emailVerified = emailVerified;
+    }
+
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getMail(), user.isEmailVerified());
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return emailVerified;
+    }
+}
@@ -1,12 +1,11 @@
 package com.vahabvahabov.SilentSignals.security.jwt;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.MalformedJwtException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -22,11 +21,11 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtRequestFilter.class);
 
-    private UserDetailsService userDetailsService;
+    private PrincipalCache principalCache;
     private JwtUtil jwtUtil;
 
-    public void setUserDetailsService(UserDetailsService userDetailsService) {
-        this.userDetailsService = userDetailsService;
+    public void setPrincipalCache(PrincipalCache principalCache) {
+        this.principalCache = principalCache;
     }
 
     public void setJwtUtil(JwtUtil jwtUtil) {
@@ -48,13 +47,15 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         final String authorizationHeader = request.getHeader("Authorization");
 
         String username = null;
-        String jwt = null;
+        Claims claims = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
+            String jwt = authorizationHeader.substring(7);
 
             try {
-                username = jwtUtil.extractUsername(jwt);
+                // Verifies signature and expiry once; the claims are reused below.
+                claims = jwtUtil.parseClaims(jwt);
+                username = claims.getSubject();
                 logger.debug("Extracted username from JWT: {}", username);
             } catch (MalformedJwtException e) {
                 logger.warn("Invalid JWT token format: {}", e.getMessage());
@@ -67,10 +68,10 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                if (jwtUtil.validateToken(jwt, userDetails)) {
+                AuthenticatedUser principal = principalCache.resolve(claims);
+                if (principal != null && jwtUtil.validateToken(claims, principal)) {
                     UsernamePasswordAuthenticationToken authToken =
-                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                            new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                     logger.debug("Successfully authenticated user: {}", username);
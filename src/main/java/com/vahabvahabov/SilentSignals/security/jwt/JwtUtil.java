@@ -1,39 +1,103 @@
 package com.vahabvahabov.SilentSignals.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.vahabvahabov.SilentSignals.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
 
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_MAIL = "mail";
+    static final String CLAIM_EMAIL_VERIFIED = "ev";
+    static final String CLAIM_TOKEN_VERSION = "tv";
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private Long expiration;
 
-    private SecretKey getSigningKey() {
+    @Value("${jwt.claims-cache-size:10000}")
+    private long claimsCacheSize;
+
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    /**
+     * Claims of tokens whose signature already checked out, keyed by the token's SHA-256 so raw
+     * tokens are not kept in memory. Each entry expires with its token.
+     */
+    private Cache<String, Claims> verifiedClaims;
+
+    @PostConstruct
+    public void init() {
         String safeSecret = secret;
         if (secret.length() < 32) {
             safeSecret = String.format("%-32s", secret).replace(' ', '0');
         }
-        return Keys.hmacShaKeyFor(safeSecret.getBytes(StandardCharsets.UTF_8));
+        signingKey = Keys.hmacShaKeyFor(safeSecret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        Date expiresAt = claims.getExpiration();
+                        long ttlMillis = expiresAt == null
+                                ? TimeUnit.SECONDS.toMillis(expiration)
+                                : expiresAt.getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(ttlMillis, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, claims, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
+    /**
+     * Issues a token for the user. For a {@link User} the token also carries the id, mail,
+     * verification flag and token version, so requests can be authenticated without a lookup.
+     */
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof User user) {
+            claims.put(CLAIM_USER_ID, user.getId());
+            claims.put(CLAIM_MAIL, user.getMail());
+            claims.put(CLAIM_EMAIL_VERIFIED, user.isEmailVerified());
+            claims.put(CLAIM_TOKEN_VERSION, user.getTokenVersion() == null ? 0L : user.getTokenVersion());
+        }
         return createToken(claims, userDetails.getUsername());
     }
 
@@ -43,41 +107,85 @@ public class JwtUtil {
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration * 1000))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
+    /**
+     * Verifies the token and returns its claims. A token seen before is answered from the cache
+     * without checking its signature again. Throws a {@link io.jsonwebtoken.JwtException} if the
+     * token is malformed, forged or expired.
+     */
+    public Claims parseClaims(String token) {
+        String key = hash(token);
+        Claims claims = verifiedClaims.getIfPresent(key);
+        if (claims != null) {
+            if (isExpired(claims)) {
+                verifiedClaims.invalidate(key);
+                throw new ExpiredJwtException(null, claims, "JWT expired at " + claims.getExpiration());
+            }
+            return claims;
+        }
+        claims = jwtParser.parseClaimsJws(token).getBody();
+        verifiedClaims.put(key, claims);
+        return claims;
+    }
+
+    public Boolean validateToken(Claims claims, UserDetails userDetails) {
+        return claims.getSubject() != null
+                && claims.getSubject().equals(userDetails.getUsername())
+                && !isExpired(claims);
+    }
+
     public Boolean validateToken(String token, UserDetails userDetails) {
         try {
-            final String username = extractUsername(token);
-            return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+            return validateToken(parseClaims(token), userDetails);
         } catch (Exception e) {
             return false;
         }
     }
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    /**
+     * Builds the principal straight from the claims, or returns null for tokens issued before the
+     * claims carried a user id.
+     */
+    public AuthenticatedUser toPrincipal(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        if (userId == null) {
+            return null;
+        }
+        return new AuthenticatedUser(userId.longValue(), claims.getSubject(),
+                claims.get(CLAIM_MAIL, String.class),
+                Boolean.TRUE.equals(claims.get(CLAIM_EMAIL_VERIFIED, Boolean.class)));
     }
 
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /**
+     * Token version the token was issued with; 0 for tokens issued before versions existed.
+     */
+    public long extractTokenVersion(Claims claims) {
+        Number version = claims.get(CLAIM_TOKEN_VERSION, Number.class);
+        return version == null ? 0L : version.longValue();
+    }
+
+    public String extractUsername(String token) {
+        return parseClaims(token).getSubject();
     }
 
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    public Date extractExpiration(String token) {
+        return parseClaims(token).getExpiration();
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private boolean isExpired(Claims claims) {
+        Date expiresAt = claims.getExpiration();
+        return expiresAt != null && expiresAt.before(new Date());
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,88 @@
+package com.vahabvahabov.SilentSignals.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vahabvahabov.SilentSignals.model.User;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounded, TTL-based cache of {@link AuthenticatedUser} principals in front of
+ * {@link UserDetailsService}, keyed by the JWT subject. Saves the user lookups on every
+ * authenticated request; entries are evicted whenever the user is saved, and the TTL bounds how
+ * long a change made outside the application can go unnoticed.
+ */
+@Component
+public class PrincipalCache {
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Value("${auth.principal-cache.size:10000}")
+    private long cacheSize;
+
+    @Value("${auth.principal-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private Cache<String, AuthenticatedUser> principals;
+
+    @PostConstruct
+    public void init() {
+        principals = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * Returns the principal for verified claims, or null if the token has been revoked. Tokens
+     * carrying a user id need no lookup at all; older tokens fall back to {@link #load}.
+     */
+    public AuthenticatedUser resolve(Claims claims) {
+        AuthenticatedUser principal = jwtUtil.toPrincipal(claims);
+        if (principal == null) {
+            principal = load(claims.getSubject());
+        }
+        if (!tokenVersionRegistry.isCurrent(principal.getId(), jwtUtil.extractTokenVersion(claims))) {
+            return null;
+        }
+        return principal;
+    }
+
+    /**
+     * Returns the principal for a username or mail, loading it on a miss. Throws
+     * {@link org.springframework.security.core.userdetails.UsernameNotFoundException} if there is
+     * no such user; misses are not cached.
+     */
+    public AuthenticatedUser load(String usernameOrMail) {
+        return principals.get(usernameOrMail, key -> {
+            UserDetails userDetails = userDetailsService.loadUserByUsername(key);
+            if (userDetails instanceof User user) {
+                return AuthenticatedUser.from(user);
+            }
+            throw new IllegalStateException("Unexpected user details type: " + userDetails.getClass().getName());
+        });
+    }
+
+    /**
+     * Drops every cached principal of the user, whichever key it was loaded under.
+     */
+    public void evict(Long userId) {
+        if (userId != null) {
+            principals.asMap().values().removeIf(principal -> userId.equals(principal.getId()));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.vahabvahabov.SilentSignals.security.jwt;
+
+import com.vahabvahabov.SilentSignals.service.UserPresenceRegistry;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authenticates STOMP sessions on CONNECT with the same JWT used for the REST API. The token is
+ * checked once per session; the resulting principal is kept on the session by the broker.
+ */
+@Component
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StompAuthChannelInterceptor.class);
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || !StompCommand.CONNECT.equals(accessor.getCommand())) {
+            return message;
+        }
+
+        String authorizationHeader = accessor.getFirstNativeHeader("Authorization");
+        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
+            logger.warn("Rejected STOMP CONNECT without a bearer token");
+            throw new AccessDeniedException("Missing JWT token.");
+        }
+        String jwt = authorizationHeader.substring(7);
+
+        try {
+            Claims claims = jwtUtil.parseClaims(jwt);
+            String username = claims.getSubject();
+            AuthenticatedUser user = principalCache.resolve(claims);
+            if (user == null || !jwtUtil.validateToken(claims, user)) {
+                throw new AccessDeniedException("Invalid JWT token.");
+            }
+            accessor.setUser(new StompPrincipal(user.getId(), UserPresenceRegistry.normalize(user.getMail())));
+            logger.debug("Authenticated STOMP session {} for user: {}", accessor.getSessionId(), username);
+        } catch (AccessDeniedException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.warn("Rejected STOMP CONNECT: {}", e.getMessage());
+            throw new AccessDeniedException("Invalid JWT token.");
+        }
+        return message;
+    }
+}
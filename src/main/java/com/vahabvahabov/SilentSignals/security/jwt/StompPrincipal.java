@@ -0,0 +1,15 @@
+package com.vahabvahabov.SilentSignals.security.jwt;
+
+import java.security.Principal;
+
+/**
+ * Principal attached to an authenticated STOMP session. Its name is the user's normalized
+ * mail, which is what alert fan-out addresses user destinations by.
+ */
+public record StompPrincipal(Long userId, String name) implements Principal {
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
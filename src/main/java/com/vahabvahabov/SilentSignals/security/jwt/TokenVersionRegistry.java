@@ -0,0 +1,58 @@
+package com.vahabvahabov.SilentSignals.security.jwt;
+
+import com.vahabvahabov.SilentSignals.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of every user's current token version, used to reject revoked tokens without a
+ * user lookup. Only users who ever had their tokens revoked are kept (everyone else is at version
+ * 0), so the table stays small. Local revocations apply at once; revocations made on other nodes
+ * are picked up by the periodic refresh. Versions only ever move forward.
+ */
+@Component
+public class TokenVersionRegistry {
+
+    private final Logger logger = LoggerFactory.getLogger(TokenVersionRegistry.class);
+
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    public boolean isCurrent(Long userId, long tokenVersion) {
+        return tokenVersion >= versions.getOrDefault(userId, 0L);
+    }
+
+    public void advance(Long userId, Long version) {
+        if (userId != null && version != null && version > 0) {
+            versions.merge(userId, version, Math::max);
+        }
+    }
+
+    public int size() {
+        return versions.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${auth.token-version.refresh-interval-ms:10000}",
+            initialDelayString = "${auth.token-version.refresh-interval-ms:10000}")
+    public void refresh() {
+        try {
+            for (Object[] row : userRepository.findRevokedTokenVersions()) {
+                advance((Long) row[0], (Long) row[1]);
+            }
+        } catch (Exception e) {
+            // Keep answering from the last known table; the next refresh tries again.
+            logger.warn("Failed to refresh token versions: {}", e.getMessage());
+        }
+    }
+}
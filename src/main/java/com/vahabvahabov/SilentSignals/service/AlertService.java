@@ -1,11 +1,20 @@
 package com.vahabvahabov.SilentSignals.service;
 
+import com.vahabvahabov.SilentSignals.dto.AlertDeliveryReportDTO;
+import com.vahabvahabov.SilentSignals.dto.SOSAlertDTO;
 import com.vahabvahabov.SilentSignals.model.User;
 
+import java.util.List;
+
 public interface AlertService {
     void sendAlert(User user, String description, String locationCoordinates, String locationAddress);
     void sendAlert(Long userId, String description, String locationCoordinates, String locationAddress);
-    void sendReminderAlert(Long userId, String description, String locationCoordinates, String locationAddress);
+    void sendReminderAlert(Long alertId);
+    int sendReminderAlerts(List<Long> alertIds);
     boolean canUserSendAlert(Long userId);
     Long getRemainingRateLimitTime(Long userId);
+    AlertDeliveryReportDTO getDeliveryReport(Long userId, Long alertId);
+    SOSAlertDTO resolveAlert(Long userId, Long alertId);
+    SOSAlertDTO cancelAlert(Long userId, Long alertId);
+    int expireStaleAlerts();
 }
\ No newline at end of file
@@ -1,6 +1,17 @@
 package com.vahabvahabov.SilentSignals.service;
 
+import com.vahabvahabov.SilentSignals.model.User;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
 public interface LoginService {
 
     public boolean authenticate(String usernameOrEmail, String password);
+
+    /**
+     * Looks the user up once and checks the password on the hashing pool. Completes with the user
+     * if the credentials match, empty otherwise; hashes made with an outdated cost are re-encoded.
+     */
+    public CompletableFuture<Optional<User>> login(String usernameOrEmail, String password);
 }
@@ -0,0 +1,18 @@
+package com.vahabvahabov.SilentSignals.service;
+
+import com.vahabvahabov.SilentSignals.model.alert.NotificationChannel;
+import com.vahabvahabov.SilentSignals.model.alert.NotificationResult;
+import com.vahabvahabov.SilentSignals.model.alert.NotificationTask;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface NotificationDispatcher {
+
+    /**
+     * Sends the task on its channel's bulkhead. The returned future never completes
+     * exceptionally; a full bulkhead yields a result marked as rejected.
+     */
+    CompletableFuture<NotificationResult> dispatch(NotificationTask task);
+
+    int availableCapacity(NotificationChannel channel);
+}
@@ -0,0 +1,18 @@
+package com.vahabvahabov.SilentSignals.service;
+
+import com.vahabvahabov.SilentSignals.model.alert.NotificationChannel;
+import com.vahabvahabov.SilentSignals.model.alert.NotificationOutbox;
+import com.vahabvahabov.SilentSignals.model.alert.NotificationResult;
+
+import java.util.List;
+
+public interface NotificationOutboxService {
+
+    void enqueue(List<NotificationOutbox> messages);
+
+    List<NotificationOutbox> claimBatch(NotificationChannel channel, int batchSize);
+
+    void complete(List<NotificationResult> results);
+
+    int releaseStaleClaims();
+}
@@ -0,0 +1,17 @@
+package com.vahabvahabov.SilentSignals.service;
+
+import java.util.List;
+
+public interface OfflineAlertInbox {
+
+    /**
+     * Queues an alert for a recipient with no open WebSocket session. Only the newest
+     * {@code alert.websocket.inbox.max-messages} alerts are kept per recipient.
+     */
+    void store(String mail, String payload);
+
+    /**
+     * Removes and returns everything queued for the recipient, oldest first.
+     */
+    List<String> drain(String mail);
+}
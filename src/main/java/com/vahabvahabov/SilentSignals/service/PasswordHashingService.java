@@ -0,0 +1,30 @@
+package com.vahabvahabov.SilentSignals.service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Password hashing on a dedicated, bounded pool so bcrypt work cannot tie up request threads.
+ * When the pool and its queue are full, calls fail fast with
+ * {@link com.vahabvahabov.SilentSignals.exception.BulkheadFullException}.
+ */
+public interface PasswordHashingService {
+
+    CompletableFuture<String> encodeAsync(CharSequence rawPassword);
+
+    CompletableFuture<Boolean> matchesAsync(CharSequence rawPassword, String encodedPassword);
+
+    /**
+     * Blocking form of {@link #encodeAsync} for callers that cannot return a future.
+     */
+    String encode(CharSequence rawPassword);
+
+    /**
+     * Blocking form of {@link #matchesAsync} for callers that cannot return a future.
+     */
+    boolean matches(CharSequence rawPassword, String encodedPassword);
+
+    /**
+     * True if the hash was made with a lower cost than the one currently configured.
+     */
+    boolean needsRehash(String encodedPassword);
+}
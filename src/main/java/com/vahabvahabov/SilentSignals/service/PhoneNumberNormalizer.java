@@ -0,0 +1,10 @@
+package com.vahabvahabov.SilentSignals.service;
+
+public interface PhoneNumberNormalizer {
+
+    /**
+     * Returns the number in E.164 form (e.g. +994501234567).
+     * Throws {@link com.vahabvahabov.SilentSignals.exception.InvalidPhoneNumberException} if it cannot be parsed.
+     */
+    String toE164(String phone);
+}
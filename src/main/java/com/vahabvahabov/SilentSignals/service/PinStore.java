@@ -0,0 +1,36 @@
+package com.vahabvahabov.SilentSignals.service;
+
+/**
+ * One-time email PINs for registration and password reset. Each PIN is kept per purpose and mail,
+ * expires after {@code pin.ttl-minutes}, and is consumed by a successful verification or after
+ * {@code pin.max-attempts} wrong guesses. Issuing a new PIN replaces the previous one.
+ */
+public interface PinStore {
+
+    enum Purpose {
+        REGISTRATION,
+        PASSWORD_RESET
+    }
+
+    enum Verification {
+        VERIFIED,
+        INCORRECT,
+        EXPIRED,
+        NOT_FOUND
+    }
+
+    /**
+     * Generates and stores a new PIN for the mail and returns it. Throws
+     * {@link com.vahabvahabov.SilentSignals.exception.BulkheadFullException} if the store is full,
+     * or {@link com.vahabvahabov.SilentSignals.exception.PinStoreUnavailableException} if it cannot
+     * be reached.
+     */
+    String issue(Purpose purpose, String mail);
+
+    /**
+     * Checks the PIN and consumes it on success, atomically, so a PIN can be redeemed only once.
+     * Throws {@link com.vahabvahabov.SilentSignals.exception.PinStoreUnavailableException} if the
+     * store cannot be reached.
+     */
+    Verification verify(Purpose purpose, String mail, String pin);
+}
@@ -0,0 +1,19 @@
+package com.vahabvahabov.SilentSignals.service;
+
+public interface RateLimiter {
+
+    /**
+     * Consumes one slot of the user's window if the limit allows it.
+     */
+    boolean isAllowed(Long userId);
+
+    /**
+     * Same check as {@link #isAllowed} without consuming a slot.
+     */
+    boolean wouldAllow(Long userId);
+
+    /**
+     * Seconds until {@link #isAllowed} would admit the user again.
+     */
+    Long getTimeUntilReset(Long userId);
+}
@@ -8,9 +8,9 @@ import java.util.List;
 
 public interface TrustedContactService {
 
-    public TrustedContactDTO addTrustedContact(String username, TrustedContact trustedContact);
+    public TrustedContactDTO addTrustedContact(Long userId, String username, TrustedContact trustedContact);
 
-    public List<TrustedContactDTO> getAllTrustedContactsByUserId(Long userId);
+    public List<TrustedContactDTO> getAllTrustedContactsByUserId(Long userId, String username);
 
     public void removeTrustedContact(Long userId, Long trustedId);
 
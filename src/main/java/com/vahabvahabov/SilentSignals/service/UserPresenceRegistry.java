@@ -0,0 +1,16 @@
+package com.vahabvahabov.SilentSignals.service;
+
+import java.util.Locale;
+
+public interface UserPresenceRegistry {
+
+    void sessionConnected(String mail, String sessionId);
+
+    void sessionDisconnected(String mail, String sessionId);
+
+    boolean isOnline(String mail);
+
+    static String normalize(String mail) {
+        return mail == null ? null : mail.trim().toLowerCase(Locale.ROOT);
+    }
+}
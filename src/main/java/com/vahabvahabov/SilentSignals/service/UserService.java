@@ -9,4 +9,9 @@ public interface UserService {
     Optional<User> findUserByUsername(String username);
 
     void saveNewUser(User user);
+
+    /**
+     * Stores a re-encoded hash of the same password, unless the password changed meanwhile.
+     */
+    boolean upgradePasswordHash(Long userId, String currentHash, String newHash);
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.vahabvahabov.SilentSignals.service;
+
+public interface WebSocketRelay {
+
+    /**
+     * Delivers {@code payload} to every session of {@code user} subscribed to {@code destination},
+     * whichever application node the session is connected to.
+     */
+    void sendToUser(String user, String destination, String payload);
+}
@@ -1,28 +1,53 @@
 package com.vahabvahabov.SilentSignals.service.imp;
 
+import com.vahabvahabov.SilentSignals.dto.AlertDeliveryDTO;
+import com.vahabvahabov.SilentSignals.dto.AlertDeliveryReportDTO;
+import com.vahabvahabov.SilentSignals.dto.SOSAlertDTO;
+import com.vahabvahabov.SilentSignals.dto.UserDTO;
 import com.vahabvahabov.SilentSignals.exception.RateLimitExceededException;
 import com.vahabvahabov.SilentSignals.model.User;
+import com.vahabvahabov.SilentSignals.model.alert.AlertDelivery;
 import com.vahabvahabov.SilentSignals.model.alert.AlertStatus;
+import com.vahabvahabov.SilentSignals.model.alert.NotificationChannel;
+import com.vahabvahabov.SilentSignals.model.alert.NotificationOutbox;
+import com.vahabvahabov.SilentSignals.model.alert.OutboxStatus;
 import com.vahabvahabov.SilentSignals.model.alert.SOSAlert;
 import com.vahabvahabov.SilentSignals.model.contact.TrustedContact;
+import com.vahabvahabov.SilentSignals.repository.AlertDeliveryRepository;
+import com.vahabvahabov.SilentSignals.repository.NotificationOutboxRepository;
 import com.vahabvahabov.SilentSignals.repository.SOSAlertRepository;
 import com.vahabvahabov.SilentSignals.repository.TrustedContractRepository;
 import com.vahabvahabov.SilentSignals.repository.UserRepository;
-import com.vahabvahabov.SilentSignals.security.InMemoryRateLimiterUtil;
+import com.vahabvahabov.SilentSignals.schedule.AlertReminderScheduler;
+import com.vahabvahabov.SilentSignals.schedule.NotificationOutboxRelay;
 import com.vahabvahabov.SilentSignals.service.AlertService;
-import com.vahabvahabov.SilentSignals.service.EmailService;
-import com.vahabvahabov.SilentSignals.service.SmsService;
+import com.vahabvahabov.SilentSignals.service.NotificationOutboxService;
+import com.vahabvahabov.SilentSignals.service.RateLimiter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -40,16 +65,37 @@ public class AlertServiceImpl implements AlertService {
     private UserRepository userRepository;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private AlertDeliveryRepository alertDeliveryRepository;
 
     @Autowired
-    private EmailService emailService;
+    private JdbcTemplate jdbcTemplate;
 
     @Autowired
-    private SmsService smsService;
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
     @Autowired
-    private InMemoryRateLimiterUtil rateLimiter;
+    private NotificationOutboxService notificationOutboxService;
+
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Autowired
+    private NotificationOutboxRelay notificationOutboxRelay;
+
+    @Autowired
+    private AlertReminderScheduler alertReminderScheduler;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Value("${alert.reminder.initial-delay-minutes:5}")
+    private long reminderInitialDelayMinutes;
+
+    @Value("${alert.reminder.interval-minutes:10}")
+    private long reminderIntervalMinutes;
+
+    @Value("${alert.expiry.after-hours:24}")
+    private long alertExpiryHours;
 
     @Override
     @Transactional
@@ -67,18 +113,99 @@ public class AlertServiceImpl implements AlertService {
             throw new RateLimitExceededException(userId, remainingTime);
         }
 
-        processAlert(userId, description, locationCoordinates, locationAddress, false);
+        processAlert(userId, description, locationCoordinates, locationAddress);
     }
 
     @Override
     @Transactional
-    public void sendReminderAlert(Long userId, String description, String locationCoordinates, String locationAddress) {
-        logger.info("Sending reminder alert for user ID: {}", userId);
-        processAlert(userId, "REMINDER: " + description, locationCoordinates, locationAddress, true);
+    public void sendReminderAlert(Long alertId) {
+        sendReminderAlerts(List.of(alertId));
     }
 
-    private void processAlert(Long userId, String description, String locationCoordinates,
-                              String locationAddress, boolean isReminder) {
+    /**
+     * Sends one round of reminders for a page of alerts in a fixed number of round trips: one
+     * claiming UPDATE ... RETURNING, one query each for users and active contacts, and two JDBC
+     * batches for the reminder and outbox rows. The claim only moves next_reminder_at forward for
+     * alerts that are still ACTIVE and due, so an alert is never reminded twice for the same slot.
+     */
+    @Override
+    @Transactional
+    public int sendReminderAlerts(List<Long> alertIds) {
+        if (alertIds.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime nextReminderAt = now.plusMinutes(reminderIntervalMinutes);
+
+        MapSqlParameterSource claimParameters = new MapSqlParameterSource()
+                .addValue("ids", alertIds)
+                .addValue("status", AlertStatus.ACTIVE.name())
+                .addValue("now", now)
+                .addValue("nextReminderAt", nextReminderAt);
+        List<ClaimedReminder> claimed = namedParameterJdbcTemplate.query(
+                "UPDATE sos_alert SET next_reminder_at = :nextReminderAt " +
+                        "WHERE id IN (:ids) AND is_alert = :status AND next_reminder_at <= :now " +
+                        "RETURNING id, user_id, description, location_address",
+                claimParameters,
+                (rs, rowNum) -> new ClaimedReminder(rs.getLong("id"), rs.getLong("user_id"),
+                        rs.getString("description"), rs.getString("location_address")));
+        if (claimed.isEmpty()) {
+            logger.debug("No due reminders among alert IDs: {}", alertIds);
+            return 0;
+        }
+
+        Set<Long> userIds = claimed.stream().map(ClaimedReminder::userId).collect(Collectors.toSet());
+        Map<Long, User> usersById = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, List<TrustedContact>> contactsByUserId = trustedContractRepository.findActiveByUserIdIn(userIds).stream()
+                .collect(Collectors.groupingBy(contact -> contact.getUser().getId()));
+
+        List<NotificationOutbox> messages = new ArrayList<>();
+        List<ClaimedReminder> reminded = new ArrayList<>();
+        for (ClaimedReminder reminder : claimed) {
+            User user = usersById.get(reminder.userId());
+            if (user == null || !user.isEnabled() || !user.isEmailVerified()) {
+                logger.warn("Skipping reminder for alert ID: {}, user {} cannot send alerts", reminder.alertId(), reminder.userId());
+                continue;
+            }
+            List<TrustedContact> contacts = contactsByUserId.getOrDefault(reminder.userId(), List.of());
+            if (contacts.isEmpty()) {
+                logger.warn("No active trusted contacts found for user: {}", user.getUsername());
+                continue;
+            }
+            List<NotificationOutbox> reminderMessages = buildOutboxMessages(reminder.alertId(), contacts,
+                    user.getUsername(), reminder.description(), reminder.locationAddress(), true);
+            if (!reminderMessages.isEmpty()) {
+                messages.addAll(reminderMessages);
+                reminded.add(reminder);
+            }
+        }
+
+        // Only alerts that actually queued notifications count as reminded.
+        if (!reminded.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO alert_reminder (alert_id, sequence_number, sent_at) " +
+                            "SELECT ?, COALESCE(MAX(sequence_number), 0) + 1, ? FROM alert_reminder WHERE alert_id = ?",
+                    reminded, reminded.size(), (ps, reminder) -> {
+                        ps.setLong(1, reminder.alertId());
+                        ps.setTimestamp(2, Timestamp.valueOf(now));
+                        ps.setLong(3, reminder.alertId());
+                    });
+        }
+        notificationOutboxService.enqueue(messages);
+
+        for (ClaimedReminder reminder : claimed) {
+            scheduleReminderAfterCommit(reminder.alertId(), nextReminderAt);
+        }
+        if (!messages.isEmpty()) {
+            wakeUpRelayAfterCommit();
+        }
+        logger.info("Sent reminders for {} of {} due alerts ({} notifications queued)",
+                reminded.size(), claimed.size(), messages.size());
+        return claimed.size();
+    }
+
+    private void processAlert(Long userId, String description, String locationCoordinates, String locationAddress) {
         Optional<User> userOptional = userRepository.findById(userId);
         if (userOptional.isEmpty()) {
             throw new RuntimeException("User not found with ID: " + userId);
@@ -94,16 +221,18 @@ public class AlertServiceImpl implements AlertService {
             throw new RuntimeException("User email is not verified: " + user.getUsername());
         }
 
-        String alertType = isReminder ? "reminder" : "SOS";
         SOSAlert sosAlert = createSosAlert(user, description, locationCoordinates, locationAddress);
         sosAlertRepository.save(sosAlert);
+        scheduleReminderAfterCommit(sosAlert.getId(), sosAlert.getNextReminderAt());
 
         List<TrustedContact> activeContacts = getActiveTrustedContacts(userId);
         if (activeContacts.isEmpty()) {
             logger.warn("No active trusted contacts found for user: {}", user.getUsername());
             return;
         }
-        sendNotificationsToContacts(activeContacts, user.getUsername(), description, locationAddress, isReminder);
+        notificationOutboxService.enqueue(buildOutboxMessages(sosAlert.getId(), activeContacts, user.getUsername(),
+                description, sosAlert.getLocationAddress(), false));
+        wakeUpRelayAfterCommit();
     }
 
     private SOSAlert createSosAlert(User user, String description, String locationCoordinates, String locationAddress) {
@@ -113,10 +242,92 @@ public class AlertServiceImpl implements AlertService {
         sosAlert.setAlertStatus(AlertStatus.ACTIVE);
         sosAlert.setLocationAddress(locationAddress != null ? locationAddress : "Location not available");
         sosAlert.setTriggeredAt(LocalDateTime.now());
+        sosAlert.setNextReminderAt(sosAlert.getTriggeredAt().plusMinutes(reminderInitialDelayMinutes));
         sosAlert.setLocationCoordinates(locationCoordinates != null ? locationCoordinates : "Coordinates not available");
         return sosAlert;
     }
 
+    @Override
+    @Transactional
+    public SOSAlertDTO resolveAlert(Long userId, Long alertId) {
+        return closeAlert(userId, alertId, AlertStatus.RESOLVED);
+    }
+
+    @Override
+    @Transactional
+    public SOSAlertDTO cancelAlert(Long userId, Long alertId) {
+        return closeAlert(userId, alertId, AlertStatus.CANCELLED);
+    }
+
+    /**
+     * ACTIVE is the only state that can be left. The @Version check turns a concurrent change
+     * (another request, or the expiry job) into an optimistic locking failure at commit.
+     */
+    private SOSAlertDTO closeAlert(Long userId, Long alertId, AlertStatus targetStatus) {
+        SOSAlert sosAlert = sosAlertRepository.findById(alertId)
+                .filter(alert -> alert.getUser().getId().equals(userId))
+                .orElseThrow(() -> new RuntimeException("Alert not found with ID: " + alertId));
+
+        if (sosAlert.getAlertStatus() != AlertStatus.ACTIVE) {
+            throw new RuntimeException("Alert is not active: " + sosAlert.getAlertStatus().getDisplayName());
+        }
+
+        sosAlert.setAlertStatus(targetStatus);
+        sosAlert.setClosedAt(LocalDateTime.now());
+        sosAlert.setNextReminderAt(null);
+        sosAlertRepository.save(sosAlert);
+
+        int cancelled = notificationOutboxRepository.cancelPending(List.of(alertId));
+        cancelRemindersAfterCommit(List.of(alertId));
+        logger.info("Alert ID: {} {} by user ID: {} ({} pending notifications cancelled)",
+                alertId, targetStatus.getDisplayName().toLowerCase(), userId, cancelled);
+
+        SOSAlertDTO sosAlertDTO = new SOSAlertDTO();
+        BeanUtils.copyProperties(sosAlert, sosAlertDTO);
+        UserDTO userDTO = new UserDTO();
+        BeanUtils.copyProperties(sosAlert.getUser(), userDTO);
+        sosAlertDTO.setUser(userDTO);
+        return sosAlertDTO;
+    }
+
+    /**
+     * Moves every ACTIVE alert older than alert.expiry.after-hours to EXPIRED in one statement and
+     * cancels whatever notifications were still waiting for them.
+     */
+    @Override
+    @Transactional
+    public int expireStaleAlerts() {
+        LocalDateTime now = LocalDateTime.now();
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("expired", AlertStatus.EXPIRED.name())
+                .addValue("active", AlertStatus.ACTIVE.name())
+                .addValue("now", now)
+                .addValue("cutoff", now.minusHours(alertExpiryHours));
+        List<Long> expiredIds = namedParameterJdbcTemplate.queryForList(
+                "UPDATE sos_alert SET is_alert = :expired, closed_at = :now, next_reminder_at = NULL, " +
+                        "version = COALESCE(version, 0) + 1 " +
+                        "WHERE is_alert = :active AND triggered_at < :cutoff RETURNING id",
+                parameters, Long.class);
+        if (expiredIds.isEmpty()) {
+            return 0;
+        }
+
+        int cancelled = notificationOutboxRepository.cancelPending(expiredIds);
+        cancelRemindersAfterCommit(expiredIds);
+        logger.info("Expired {} alerts older than {} hours ({} pending notifications cancelled)",
+                expiredIds.size(), alertExpiryHours, cancelled);
+        return expiredIds.size();
+    }
+
+    private void cancelRemindersAfterCommit(List<Long> alertIds) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                alertIds.forEach(alertReminderScheduler::cancel);
+            }
+        });
+    }
+
     private List<TrustedContact> getActiveTrustedContacts(Long userId) {
         return trustedContractRepository.findByUserId(userId)
                 .stream()
@@ -125,80 +336,71 @@ public class AlertServiceImpl implements AlertService {
                 .collect(Collectors.toList());
     }
 
-    private void sendNotificationsToContacts(List<TrustedContact> activeContacts, String username,
-                                             String description, String locationAddress, boolean isReminder) {
-        boolean webSocketDelivered = false;
-        webSocketDelivered = sendWebSocketNotifications(activeContacts, username, description, locationAddress, isReminder);
-        sendEmailAndSmsNotifications(activeContacts, username, description, locationAddress, isReminder);
-        if (!webSocketDelivered) {
-            logger.info("WebSocket delivery failed, relying on email/SMS notifications");
-        }
-    }
-
-    private boolean sendWebSocketNotifications(List<TrustedContact> activeContacts, String username,
-                                               String description, String locationAddress, boolean isReminder) {
-        boolean delivered = false;
-        String prefix = isReminder ? "REMINDER - " : "";
+    private List<NotificationOutbox> buildOutboxMessages(Long alertId, List<TrustedContact> activeContacts, String username,
+                                                         String description, String locationAddress, boolean isReminder) {
+        List<NotificationOutbox> messages = new ArrayList<>();
         for (TrustedContact contact : activeContacts) {
             if (contact.getEmail() != null && !contact.getEmail().trim().isEmpty()) {
-                try {
-                    String alertMessage = String.format(
-                            "%sSOS Alert from %s: %s at %s",
-                            prefix, username, description, locationAddress
-                    );
-
-                    messagingTemplate.convertAndSendToUser(
-                            contact.getEmail(),
-                            "/topic/alerts",
-                            alertMessage
-                    );
-                    delivered = true;
-                    logger.info("WebSocket {}alert sent to: {}", isReminder ? "reminder " : "", contact.getEmail());
-                } catch (Exception e) {
-                    logger.error("WebSocket delivery failed for {}: {}", contact.getEmail(), e.getMessage());
-                }
+                messages.add(createOutboxMessage(alertId, contact, NotificationChannel.WEBSOCKET, contact.getEmail(),
+                        username, description, locationAddress, isReminder));
+                messages.add(createOutboxMessage(alertId, contact, NotificationChannel.EMAIL, contact.getEmail(),
+                        username, description, locationAddress, isReminder));
+            }
+            if (contact.getPhoneE164() != null) {
+                messages.add(createOutboxMessage(alertId, contact, NotificationChannel.SMS, contact.getPhoneE164(),
+                        username, description, locationAddress, isReminder));
             }
         }
-        return delivered;
+        return messages;
     }
 
-    private void sendEmailAndSmsNotifications(List<TrustedContact> activeContacts, String username,
-                                              String description, String locationAddress, boolean isReminder) {
-        int emailCount = 0;
-        int smsCount = 0;
-        for (TrustedContact contact : activeContacts) {
-            if (contact.getEmail() != null && !contact.getEmail().trim().isEmpty()) {
-                try {
-                    if (isReminder) {
-                        emailService.sendSosAlertReminder(contact.getEmail(), username, description, locationAddress);
-                    } else {
-                        emailService.sendSosAlert(contact.getEmail(), username, description, locationAddress);
-                    }
-                    emailCount++;
-                    logger.info("SOS {}Email sent to: {}", isReminder ? "Reminder " : "", contact.getEmail());
-                } catch (Exception e) {
-                    logger.error("Failed to send SOS Email to {}: {}", contact.getEmail(), e.getMessage());
+    private NotificationOutbox createOutboxMessage(Long alertId, TrustedContact contact, NotificationChannel channel,
+                                                   String recipient, String username, String description,
+                                                   String locationAddress, boolean isReminder) {
+        NotificationOutbox message = new NotificationOutbox();
+        message.setAlertId(alertId);
+        message.setContactId(contact.getId());
+        message.setChannel(channel);
+        message.setRecipient(recipient);
+        message.setUsername(username);
+        message.setDescription(description);
+        message.setLocationAddress(locationAddress);
+        message.setReminder(isReminder);
+        message.setStatus(OutboxStatus.PENDING);
+        message.setNextAttemptAt(LocalDateTime.now());
+        return message;
+    }
+
+    private void scheduleReminderAfterCommit(Long alertId, LocalDateTime dueAt) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    alertReminderScheduler.schedule(alertId, dueAt);
                 }
-            }
-            if (contact.getPhone() != null && !contact.getPhone().trim().isEmpty()) {
-                try {
-                    String smsDescription = isReminder ? "REMINDER: " + description : description;
-                    smsService.sendSosAlert(contact.getPhone(), username, smsDescription, locationAddress);
-                    smsCount++;
-                    logger.info("SOS {}SMS sent to: {}", isReminder ? "Reminder " : "", contact.getPhone());
-                } catch (Exception e) {
-                    logger.error("Failed to send SOS SMS to {}: {}", contact.getPhone(), e.getMessage());
+            });
+        } else {
+            alertReminderScheduler.schedule(alertId, dueAt);
+        }
+    }
+
+    private void wakeUpRelayAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    notificationOutboxRelay.wakeUp();
                 }
-            }
+            });
+        } else {
+            notificationOutboxRelay.wakeUp();
         }
-        String alertType = isReminder ? "reminder " : "";
-        logger.info("{}Notifications sent: {} emails, {} SMS messages", alertType, emailCount, smsCount);
     }
 
     @Override
     @Transactional(readOnly = true)
     public boolean canUserSendAlert(Long userId) {
-        if (!rateLimiter.isAllowed(userId)) {
+        if (!rateLimiter.wouldAllow(userId)) {
             return false;
         }
         Optional<User> userOptional = userRepository.findById(userId);
@@ -213,4 +415,43 @@ public class AlertServiceImpl implements AlertService {
     public Long getRemainingRateLimitTime(Long userId) {
         return rateLimiter.getTimeUntilReset(userId);
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional(readOnly = true)
+    public AlertDeliveryReportDTO getDeliveryReport(Long userId, Long alertId) {
+        List<Object[]> rows = alertDeliveryRepository.findAlertWithDeliveries(alertId, userId);
+        if (rows.isEmpty()) {
+            throw new RuntimeException("Alert not found with ID: " + alertId);
+        }
+
+        SOSAlert alert = (SOSAlert) rows.get(0)[0];
+        List<AlertDeliveryDTO> deliveries = new ArrayList<>();
+        for (Object[] row : rows) {
+            AlertDelivery delivery = (AlertDelivery) row[1];
+            if (delivery != null) {
+                AlertDeliveryDTO deliveryDTO = new AlertDeliveryDTO();
+                BeanUtils.copyProperties(delivery, deliveryDTO);
+                deliveries.add(deliveryDTO);
+            }
+        }
+
+        Long timeToFirstNotification = deliveries.stream()
+                .map(AlertDeliveryDTO::getSentAt)
+                .filter(Objects::nonNull)
+                .min(Comparator.naturalOrder())
+                .map(firstSentAt -> Duration.between(alert.getTriggeredAt(), firstSentAt).toMillis())
+                .orElse(null);
+
+        Map<NotificationChannel, Double> averageLatency = deliveries.stream()
+                .filter(delivery -> delivery.getLatencyMillis() != null)
+                .collect(Collectors.groupingBy(AlertDeliveryDTO::getChannel,
+                        () -> new EnumMap<>(NotificationChannel.class),
+                        Collectors.averagingLong(AlertDeliveryDTO::getLatencyMillis)));
+
+        return new AlertDeliveryReportDTO(alert.getId(), alert.getAlertStatus(), alert.getTriggeredAt(),
+                timeToFirstNotification, averageLatency, deliveries);
+    }
+
+    private record ClaimedReminder(Long alertId, Long userId, String description, String locationAddress) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.vahabvahabov.SilentSignals.service.imp;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vahabvahabov.SilentSignals.service.OfflineAlertInbox;
+import com.vahabvahabov.SilentSignals.service.UserPresenceRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-node {@link OfflineAlertInbox}. Most recipients never open the app, so like the Redis
+ * inbox each one expires {@code ttl-hours} after its last alert, and the number of recipients held
+ * is capped at {@code max-recipients}.
+ */
+@Service
+@ConditionalOnProperty(name = "alert.websocket.relay", havingValue = "local", matchIfMissing = true)
+public class LocalOfflineAlertInbox implements OfflineAlertInbox {
+
+    @Value("${alert.websocket.inbox.max-messages:50}")
+    private int maxMessages;
+
+    @Value("${alert.websocket.inbox.ttl-hours:72}")
+    private long ttlHours;
+
+    @Value("${alert.websocket.inbox.max-recipients:10000}")
+    private long maxRecipients;
+
+    private Map<String, Deque<String>> inboxes;
+
+    @PostConstruct
+    public void init() {
+        inboxes = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofHours(ttlHours))
+                .maximumSize(maxRecipients)
+                .<String, Deque<String>>build()
+                .asMap();
+    }
+
+    @Override
+    public void store(String mail, String payload) {
+        inboxes.compute(UserPresenceRegistry.normalize(mail), (key, inbox) -> {
+            Deque<String> messages = inbox != null ? inbox : new ArrayDeque<>();
+            messages.addLast(payload);
+            while (messages.size() > maxMessages) {
+                messages.removeFirst();
+            }
+            return messages;
+        });
+    }
+
+    @Override
+    public List<String> drain(String mail) {
+        Deque<String> messages = inboxes.remove(UserPresenceRegistry.normalize(mail));
+        return messages != null ? new ArrayList<>(messages) : List.of();
+    }
+}
@@ -0,0 +1,115 @@
+package com.vahabvahabov.SilentSignals.service.imp;
+
+import com.vahabvahabov.SilentSignals.exception.BulkheadFullException;
+import com.vahabvahabov.SilentSignals.schedule.TimingWheel;
+import com.vahabvahabov.SilentSignals.service.PinStore;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-node {@link PinStore}. Each PIN is removed by a timing-wheel timer when it expires, so
+ * abandoned PINs do not pile up, and the number of pending PINs is capped at
+ * {@code pin.max-entries}.
+ */
+@Service
+@ConditionalOnProperty(name = "pin.store", havingValue = "local", matchIfMissing = true)
+public class LocalPinStore implements PinStore, DisposableBean {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final Map<String, PinEntry> pins = new ConcurrentHashMap<>();
+
+    @Value("${pin.ttl-minutes:10}")
+    private long ttlMinutes;
+
+    @Value("${pin.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${pin.max-entries:100000}")
+    private int maxEntries;
+
+    private TimingWheel timingWheel;
+
+    @PostConstruct
+    public void init() {
+        // Expiry tasks only remove a map entry, so they run on the wheel's own thread.
+        timingWheel = new TimingWheel("pin-expiry", 1000, 64, Runnable::run);
+    }
+
+    @Override
+    public String issue(Purpose purpose, String mail) {
+        String key = key(purpose, mail);
+        if (pins.size() >= maxEntries && !pins.containsKey(key)) {
+            throw new BulkheadFullException("pin-store");
+        }
+        String pin = String.format("%06d", RANDOM.nextInt(1_000_000));
+        long ttlMillis = ttlMinutes * 60 * 1000;
+        PinEntry entry = new PinEntry(pin, System.currentTimeMillis() + ttlMillis);
+        entry.timeout = timingWheel.schedule(() -> pins.remove(key, entry), ttlMillis);
+        PinEntry previous = pins.put(key, entry);
+        if (previous != null) {
+            previous.timeout.cancel();
+        }
+        return pin;
+    }
+
+    @Override
+    public Verification verify(Purpose purpose, String mail, String pin) {
+        long now = System.currentTimeMillis();
+        Verification[] result = {Verification.NOT_FOUND};
+        PinEntry[] consumed = new PinEntry[1];
+        pins.computeIfPresent(key(purpose, mail), (key, entry) -> {
+            if (now >= entry.expiresAt) {
+                result[0] = Verification.EXPIRED;
+            } else if (entry.pin.equals(pin)) {
+                result[0] = Verification.VERIFIED;
+            } else {
+                result[0] = Verification.INCORRECT;
+                if (++entry.attempts < maxAttempts) {
+                    return entry;
+                }
+            }
+            consumed[0] = entry;
+            return null;
+        });
+        if (consumed[0] != null) {
+            consumed[0].timeout.cancel();
+        }
+        return result[0];
+    }
+
+    public int size() {
+        return pins.size();
+    }
+
+    @Override
+    public void destroy() {
+        timingWheel.stop();
+    }
+
+    private static String key(Purpose purpose, String mail) {
+        return purpose + ":" + mail.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class PinEntry {
+
+        private final String pin;
+        private final long expiresAt;
+        // Guarded by the map's per-key compute.
+        private int attempts;
+        private TimingWheel.Timeout timeout;
+
+        private PinEntry(String pin, long expiresAt) {
+            this.pin = pin;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.vahabvahabov.SilentSignals.service.imp;
+
+import com.vahabvahabov.SilentSignals.service.UserPresenceRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the STOMP sessions connected to this node. Only correct for a single node; the Redis
+ * registry is used when alerts are relayed across nodes.
+ */
+@Service
+@ConditionalOnProperty(name = "alert.websocket.relay", havingValue = "local", matchIfMissing = true)
+public class LocalUserPresenceRegistry implements UserPresenceRegistry {
+
+    private final Map<String, Set<String>> sessionsByMail = new ConcurrentHashMap<>();
+
+    @Override
+    public void sessionConnected(String mail, String sessionId) {
+        sessionsByMail.computeIfAbsent(UserPresenceRegistry.normalize(mail), key -> ConcurrentHashMap.newKeySet())
+                .add(sessionId);
+    }
+
+    @Override
+    public void sessionDisconnected(String mail, String sessionId) {
+        sessionsByMail.computeIfPresent(UserPresenceRegistry.normalize(mail), (key, sessions) -> {
+            sessions.remove(sessionId);
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+
+    @Override
+    public boolean isOnline(String mail) {
+        return mail != null && sessionsByMail.containsKey(UserPresenceRegistry.normalize(mail));
+    }
+}
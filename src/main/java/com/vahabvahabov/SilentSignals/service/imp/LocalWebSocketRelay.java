@@ -0,0 +1,23 @@
+package com.vahabvahabov.SilentSignals.service.imp;
+
+import com.vahabvahabov.SilentSignals.service.WebSocketRelay;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Single-node relay: pushes straight to this node's in-process broker.
+ */
+@Service
+@ConditionalOnProperty(name = "alert.websocket.relay", havingValue = "local", matchIfMissing = true)
+public class LocalWebSocketRelay implements WebSocketRelay {
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Override
+    public void sendToUser(String user, String destination, String payload) {
+        messagingTemplate.convertAndSendToUser(user, destination, payload);
+    }
+}
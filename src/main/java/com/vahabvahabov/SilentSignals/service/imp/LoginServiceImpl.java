@@ -2,35 +2,98 @@ package com.vahabvahabov.SilentSignals.service.imp;
 
 import com.vahabvahabov.SilentSignals.model.User;
 import com.vahabvahabov.SilentSignals.service.LoginService;
+import com.vahabvahabov.SilentSignals.service.PasswordHashingService;
 import com.vahabvahabov.SilentSignals.service.UserService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Service
 public class LoginServiceImpl implements LoginService {
 
+    private final Logger logger = LoggerFactory.getLogger(LoginServiceImpl.class);
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    @Qualifier("housekeepingExecutor")
+    private Executor housekeepingExecutor;
+
+    // Checked against when the user does not exist, so unknown names take as long as wrong passwords.
+    private String unknownUserHash;
+
+    @PostConstruct
+    public void init() {
+        unknownUserHash = passwordEncoder.encode("unknown-user");
+    }
+
     @Override
     public boolean authenticate(String usernameOrEmail, String password) {
-        Optional<User> optional;
+        return login(usernameOrEmail, password).join().isPresent();
+    }
 
-        if(usernameOrEmail.contains("@")) {
-            optional = userService.findUserByMail(usernameOrEmail);
-        }else {
-            optional = userService.findUserByUsername(usernameOrEmail);
+    @Override
+    public CompletableFuture<Optional<User>> login(String usernameOrEmail, String password) {
+        Optional<User> optional = findUser(usernameOrEmail);
+        if (optional.isEmpty() || password == null) {
+            return passwordHashingService.matchesAsync(password == null ? "" : password, unknownUserHash)
+                    .thenApply(ignored -> Optional.empty());
         }
-        if(optional.isPresent()) {
-            User user = optional.get();
-            return passwordEncoder.matches(password, user.getPassword());
+        User user = optional.get();
+        String currentHash = user.getPassword();
+        return passwordHashingService.matchesAsync(password, currentHash)
+                .thenCompose(matches -> {
+                    if (!matches) {
+                        return CompletableFuture.completedFuture(Optional.<User>empty());
+                    }
+                    if (!passwordHashingService.needsRehash(currentHash)) {
+                        return CompletableFuture.completedFuture(Optional.of(user));
+                    }
+                    return rehash(user, password, currentHash).thenApply(ignored -> Optional.of(user));
+                });
+    }
+
+    private Optional<User> findUser(String usernameOrEmail) {
+        if (usernameOrEmail == null) {
+            return Optional.empty();
         }
-        return false;
+        if (usernameOrEmail.contains("@")) {
+            return userService.findUserByMail(usernameOrEmail);
+        }
+        return userService.findUserByUsername(usernameOrEmail);
+    }
+
+    /**
+     * Re-encodes the hash with the configured cost. Best effort: the login succeeds either way.
+     * The database write runs on the housekeeping executor so it does not hold a password hashing
+     * thread while it waits on JDBC.
+     */
+    private CompletableFuture<Void> rehash(User user, String password, String currentHash) {
+        return passwordHashingService.encodeAsync(password)
+                .thenAcceptAsync(newHash -> {
+                    if (userService.upgradePasswordHash(user.getId(), currentHash, newHash)) {
+                        user.setPassword(newHash);
+                        logger.info("Upgraded password hash cost for user ID: {}", user.getId());
+                    }
+                }, housekeepingExecutor)
+                .exceptionally(e -> {
+                    logger.warn("Could not upgrade password hash for user ID {}: {}", user.getId(), e.getMessage());
+                    return null;
+                });
     }
 }
@@ -0,0 +1,147 @@
+package com.vahabvahabov.SilentSignals.service.imp;
+
+import com.vahabvahabov.SilentSignals.exception.BulkheadFullException;
+import com.vahabvahabov.SilentSignals.exception.NotificationDeliveryException;
+import com.vahabvahabov.SilentSignals.model.alert.NotificationChannel;
+import com.vahabvahabov.SilentSignals.model.alert.NotificationResult;
+import com.vahabvahabov.SilentSignals.model.alert.NotificationTask;
+import com.vahabvahabov.SilentSignals.security.ChannelBulkhead;
+import com.vahabvahabov.SilentSignals.service.EmailService;
+import com.vahabvahabov.SilentSignals.service.NotificationDispatcher;
+import com.vahabvahabov.SilentSignals.service.OfflineAlertInbox;
+import com.vahabvahabov.SilentSignals.service.SmsService;
+import com.vahabvahabov.SilentSignals.service.UserPresenceRegistry;
+import com.vahabvahabov.SilentSignals.service.WebSocketRelay;
+import jakarta.annotation.PostConstruct;
+import jakarta.mail.internet.AddressException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailParseException;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+@Service
+public class NotificationDispatcherImpl implements NotificationDispatcher {
+
+    private final Logger logger = LoggerFactory.getLogger(NotificationDispatcherImpl.class);
+
+    @Autowired
+    private WebSocketRelay webSocketRelay;
+
+    @Autowired
+    private UserPresenceRegistry userPresenceRegistry;
+
+    @Autowired
+    private OfflineAlertInbox offlineAlertInbox;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private SmsService smsService;
+
+    @Autowired
+    @Qualifier("emailBulkhead")
+    private ChannelBulkhead emailBulkhead;
+
+    @Autowired
+    @Qualifier("smsBulkhead")
+    private ChannelBulkhead smsBulkhead;
+
+    @Autowired
+    @Qualifier("websocketBulkhead")
+    private ChannelBulkhead websocketBulkhead;
+
+    private final Map<NotificationChannel, ChannelBulkhead> bulkheads = new EnumMap<>(NotificationChannel.class);
+
+    @PostConstruct
+    public void init() {
+        bulkheads.put(NotificationChannel.EMAIL, emailBulkhead);
+        bulkheads.put(NotificationChannel.SMS, smsBulkhead);
+        bulkheads.put(NotificationChannel.WEBSOCKET, websocketBulkhead);
+    }
+
+    @Override
+    public CompletableFuture<NotificationResult> dispatch(NotificationTask task) {
+        return bulkheads.get(task.getChannel())
+                .submit(() -> send(task))
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof BulkheadFullException) {
+                        return NotificationResult.rejected(task, cause.getMessage());
+                    }
+                    return NotificationResult.failure(task, cause.getMessage(), true, 0);
+                });
+    }
+
+    @Override
+    public int availableCapacity(NotificationChannel channel) {
+        return bulkheads.get(channel).getRemainingCapacity();
+    }
+
+    private NotificationResult send(NotificationTask task) {
+        long start = System.nanoTime();
+        try {
+            switch (task.getChannel()) {
+                case WEBSOCKET -> sendWebSocket(task);
+                case EMAIL -> sendEmail(task);
+                case SMS -> sendSms(task);
+            }
+            return NotificationResult.success(task, elapsedMillis(start));
+        } catch (Exception e) {
+            logger.error("Failed to send SOS {} to {}: {}", task.getChannel().getDisplayName(), task.getRecipient(), e.getMessage());
+            return NotificationResult.failure(task, e.getMessage(), isRetryable(e), elapsedMillis(start));
+        }
+    }
+
+    private boolean isRetryable(Exception e) {
+        if (e instanceof NotificationDeliveryException deliveryException) {
+            return deliveryException.isRetryable();
+        }
+        // Bad credentials, malformed messages and invalid addresses fail the same way on every attempt.
+        return !(e instanceof MailAuthenticationException
+                || e instanceof MailParseException
+                || e instanceof AddressException);
+    }
+
+    private void sendWebSocket(NotificationTask task) {
+        String alertMessage = String.format(
+                "%sSOS Alert from %s: %s at %s",
+                task.isReminder() ? "REMINDER - " : "", task.getUsername(), task.getDescription(), task.getLocationAddress()
+        );
+        String recipient = UserPresenceRegistry.normalize(task.getRecipient());
+        if (!userPresenceRegistry.isOnline(recipient)) {
+            offlineAlertInbox.store(recipient, alertMessage);
+            logger.info("WebSocket {}alert queued for offline recipient: {}", task.isReminder() ? "reminder " : "", recipient);
+            return;
+        }
+        webSocketRelay.sendToUser(recipient, "/topic/alerts", alertMessage);
+        logger.info("WebSocket {}alert sent to: {}", task.isReminder() ? "reminder " : "", recipient);
+    }
+
+    private void sendEmail(NotificationTask task) throws Exception {
+        if (task.isReminder()) {
+            emailService.sendSosAlertReminder(task.getRecipient(), task.getUsername(), task.getDescription(), task.getLocationAddress());
+        } else {
+            emailService.sendSosAlert(task.getRecipient(), task.getUsername(), task.getDescription(), task.getLocationAddress());
+        }
+        logger.info("SOS {}Email sent to: {}", task.isReminder() ? "Reminder " : "", task.getRecipient());
+    }
+
+    private void sendSms(NotificationTask task) {
+        String smsDescription = task.isReminder() ? "REMINDER: " + task.getDescription() : task.getDescription();
+        smsService.sendSosAlert(task.getRecipient(), task.getUsername(), smsDescription, task.getLocationAddress());
+        logger.info("SOS {}SMS sent to: {}", task.isReminder() ? "Reminder " : "", task.getRecipient());
+    }
+
+    private long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,211 @@
+package com.vahabvahabov.SilentSignals.service.imp;
+
+import com.vahabvahabov.SilentSignals.model.alert.AlertDelivery;
+import com.vahabvahabov.SilentSignals.model.alert.DeliveryStatus;
+import com.vahabvahabov.SilentSignals.model.alert.NotificationChannel;
+import com.vahabvahabov.SilentSignals.model.alert.NotificationOutbox;
+import com.vahabvahabov.SilentSignals.model.alert.NotificationResult;
+import com.vahabvahabov.SilentSignals.model.alert.OutboxStatus;
+import com.vahabvahabov.SilentSignals.repository.AlertDeliveryRepository;
+import com.vahabvahabov.SilentSignals.repository.NotificationOutboxRepository;
+import com.vahabvahabov.SilentSignals.repository.SOSAlertRepository;
+import com.vahabvahabov.SilentSignals.service.NotificationOutboxService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class NotificationOutboxServiceImpl implements NotificationOutboxService {
+
+    private final Logger logger = LoggerFactory.getLogger(NotificationOutboxServiceImpl.class);
+
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName();
+
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Autowired
+    private AlertDeliveryRepository alertDeliveryRepository;
+
+    @Autowired
+    private SOSAlertRepository sosAlertRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${alert.outbox.claim-timeout-minutes:5}")
+    private long claimTimeoutMinutes;
+
+    @Value("${alert.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${alert.retry.initial-delay-ms:2000}")
+    private long initialRetryDelayMillis;
+
+    @Value("${alert.retry.max-delay-ms:300000}")
+    private long maxRetryDelayMillis;
+
+    /**
+     * IDENTITY ids make Hibernate insert row by row, so new messages go in as one JDBC batch.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(List<NotificationOutbox> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO notification_outbox (alert_id, contact_id, channel, recipient, username, description, " +
+                        "location_address, reminder, status, attempts, next_attempt_at, created_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?)",
+                messages, messages.size(), (ps, message) -> {
+                    ps.setLong(1, message.getAlertId());
+                    ps.setObject(2, message.getContactId());
+                    ps.setString(3, message.getChannel().name());
+                    ps.setString(4, message.getRecipient());
+                    ps.setString(5, message.getUsername());
+                    ps.setString(6, message.getDescription());
+                    ps.setString(7, message.getLocationAddress());
+                    ps.setBoolean(8, message.isReminder());
+                    ps.setString(9, OutboxStatus.PENDING.name());
+                    ps.setTimestamp(10, Timestamp.valueOf(message.getNextAttemptAt()));
+                    ps.setTimestamp(11, createdAt);
+                });
+    }
+
+    /**
+     * Locks up to {@code batchSize} due rows of one channel with FOR UPDATE SKIP LOCKED and marks them
+     * IN_FLIGHT before committing, so concurrent relays on other nodes never claim the same row.
+     */
+    @Override
+    @Transactional
+    public List<NotificationOutbox> claimBatch(NotificationChannel channel, int batchSize) {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationOutbox> batch = notificationOutboxRepository.lockDueBatch(channel.name(), now, batchSize);
+        for (NotificationOutbox message : batch) {
+            message.setStatus(OutboxStatus.IN_FLIGHT);
+            message.setClaimedAt(now);
+            message.setClaimedBy(nodeId);
+        }
+        return batch;
+    }
+
+    /**
+     * Records the outcome of claimed rows. Rows of an alert that was closed while they were in
+     * flight are never re-queued: a delivered message is still recorded as SENT, anything else stays
+     * CANCELLED.
+     */
+    @Override
+    @Transactional
+    public void complete(List<NotificationResult> results) {
+        Map<Long, NotificationResult> resultsById = results.stream()
+                .collect(Collectors.toMap(result -> result.getTask().getOutboxId(), Function.identity()));
+        List<NotificationOutbox> messages = notificationOutboxRepository.lockAllById(resultsById.keySet());
+        Set<Long> closedAlertIds = messages.isEmpty() ? Set.of() : new HashSet<>(sosAlertRepository.findClosedIds(
+                messages.stream().map(NotificationOutbox::getAlertId).collect(Collectors.toSet())));
+        List<AlertDelivery> deliveries = new ArrayList<>();
+        for (NotificationOutbox message : messages) {
+            NotificationResult result = resultsById.get(message.getId());
+            boolean cancelled = message.getStatus() == OutboxStatus.CANCELLED
+                    || closedAlertIds.contains(message.getAlertId());
+            if (result.isRejected()) {
+                // The channel was saturated; hand the row back untouched so it is picked up again.
+                message.setStatus(cancelled ? OutboxStatus.CANCELLED : OutboxStatus.PENDING);
+                message.setClaimedAt(null);
+                message.setClaimedBy(null);
+                continue;
+            }
+            message.setAttempts(message.getAttempts() + 1);
+            if (result.isSuccess()) {
+                message.setStatus(OutboxStatus.SENT);
+                message.setSentAt(result.getCompletedAt());
+                message.setLastError(null);
+            } else if (cancelled) {
+                message.setStatus(OutboxStatus.CANCELLED);
+                message.setClaimedAt(null);
+                message.setClaimedBy(null);
+                message.setLastError(truncate(result.getError()));
+            } else if (result.isRetryable() && message.getAttempts() < maxAttempts) {
+                message.setStatus(OutboxStatus.PENDING);
+                message.setNextAttemptAt(result.getCompletedAt().plus(backoff(message.getAttempts())));
+                message.setClaimedAt(null);
+                message.setClaimedBy(null);
+                message.setLastError(truncate(result.getError()));
+                logger.info("{} to {} failed (attempt {}/{}), retrying at {}", message.getChannel().getDisplayName(),
+                        message.getRecipient(), message.getAttempts(), maxAttempts, message.getNextAttemptAt());
+            } else {
+                message.setStatus(OutboxStatus.FAILED);
+                message.setLastError(truncate(result.getError()));
+                logger.error("{} to {} failed permanently after {} attempt(s): {}", message.getChannel().getDisplayName(),
+                        message.getRecipient(), message.getAttempts(), result.getError());
+            }
+            deliveries.add(createDelivery(message, result));
+        }
+        alertDeliveryRepository.saveAll(deliveries);
+    }
+
+    /**
+     * Exponential backoff with equal jitter: half of the capped delay is fixed, the other half random,
+     * so retries of one provider outage do not all land on the same second.
+     */
+    private Duration backoff(int attempts) {
+        long exponential = initialRetryDelayMillis << Math.min(attempts - 1, 20);
+        long capped = Math.min(maxRetryDelayMillis, exponential);
+        long half = capped / 2;
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(half + 1));
+    }
+
+    private AlertDelivery createDelivery(NotificationOutbox message, NotificationResult result) {
+        AlertDelivery delivery = new AlertDelivery();
+        delivery.setAlert(sosAlertRepository.getReferenceById(message.getAlertId()));
+        delivery.setContactId(message.getContactId());
+        delivery.setChannel(message.getChannel());
+        delivery.setRecipient(message.getRecipient());
+        delivery.setStatus(result.isSuccess() ? DeliveryStatus.SENT : DeliveryStatus.FAILED);
+        delivery.setAttempt(message.getAttempts());
+        delivery.setEnqueuedAt(message.getCreatedAt());
+        delivery.setSentAt(result.isSuccess() ? result.getCompletedAt() : null);
+        delivery.setLatencyMillis(result.getLatencyMillis());
+        delivery.setError(truncate(result.getError()));
+        return delivery;
+    }
+
+    @Override
+    @Transactional
+    public int releaseStaleClaims() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(claimTimeoutMinutes);
+        int released = notificationOutboxRepository.releaseStaleClaims(OutboxStatus.PENDING, OutboxStatus.IN_FLIGHT,
+                cutoff);
+        int cancelled = notificationOutboxRepository.cancelStaleClaimsOfClosedAlerts(cutoff);
+        if (released > 0 || cancelled > 0) {
+            logger.warn("Released {} and cancelled {} outbox messages whose claim expired", released, cancelled);
+        }
+        return released;
+    }
+
+    private String truncate(String error) {
+        if (error == null || error.length() <= 1000) {
+            return error;
+        }
+        return error.substring(0, 1000);
+    }
+}
@@ -0,0 +1,89 @@
+package com.vahabvahabov.SilentSignals.service.imp;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vahabvahabov.SilentSignals.exception.InvalidPhoneNumberException;
+import com.vahabvahabov.SilentSignals.service.PhoneNumberNormalizer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Normalizes numbers for a single home country: "+..." and "00..." are taken as international,
+ * "0XXXXXXXXX" (trunk prefix) and bare national numbers get the default country code.
+ */
+@Service
+public class PhoneNumberNormalizerImpl implements PhoneNumberNormalizer {
+
+    private static final int MIN_E164_DIGITS = 8;
+    private static final int MAX_E164_DIGITS = 15;
+    private static final String INVALID = "";
+
+    @Value("${phone.default-country-code:994}")
+    private String defaultCountryCode;
+
+    @Value("${phone.trunk-prefix:0}")
+    private String trunkPrefix;
+
+    @Value("${phone.national-number-length:9}")
+    private int nationalNumberLength;
+
+    @Value("${phone.parse-cache-size:10000}")
+    private long parseCacheSize;
+
+    private Cache<String, String> parseCache;
+
+    @PostConstruct
+    public void init() {
+        parseCache = Caffeine.newBuilder()
+                .maximumSize(parseCacheSize)
+                .build();
+    }
+
+    @Override
+    public String toE164(String phone) {
+        if (phone == null || phone.isBlank()) {
+            throw new InvalidPhoneNumberException("The phone number is empty.");
+        }
+        String normalized = parseCache.get(phone, this::parse);
+        if (normalized.isEmpty()) {
+            throw new InvalidPhoneNumberException("The phone number format is invalid: " + phone);
+        }
+        return normalized;
+    }
+
+    private String parse(String phone) {
+        String trimmed = phone.trim();
+        boolean international = trimmed.startsWith("+");
+
+        StringBuilder digits = new StringBuilder(trimmed.length());
+        for (int i = international ? 1 : 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if (c != ' ' && c != '-' && c != '.' && c != '(' && c != ')') {
+                return INVALID;
+            }
+        }
+
+        String number = digits.toString();
+        if (!international) {
+            if (number.startsWith("00")) {
+                number = number.substring(2);
+            } else if (number.length() == nationalNumberLength) {
+                number = defaultCountryCode + number;
+            } else if (!trunkPrefix.isEmpty() && number.startsWith(trunkPrefix)
+                    && number.length() == trunkPrefix.length() + nationalNumberLength) {
+                number = defaultCountryCode + number.substring(trunkPrefix.length());
+            } else if (!(number.startsWith(defaultCountryCode)
+                    && number.length() == defaultCountryCode.length() + nationalNumberLength)) {
+                return INVALID;
+            }
+        }
+
+        if (number.length() < MIN_E164_DIGITS || number.length() > MAX_E164_DIGITS || number.charAt(0) == '0') {
+            return INVALID;
+        }
+        return "+" + number;
+    }
+}
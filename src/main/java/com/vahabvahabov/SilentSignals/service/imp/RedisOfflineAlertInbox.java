@@ -0,0 +1,70 @@
+package com.vahabvahabov.SilentSignals.service.imp;
+
+import com.vahabvahabov.SilentSignals.service.OfflineAlertInbox;
+import com.vahabvahabov.SilentSignals.service.UserPresenceRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One capped Redis list per recipient. Store and drain are single Lua calls, so concurrent
+ * writers on different nodes cannot grow a list past the cap or lose messages during a drain.
+ */
+@Service
+@ConditionalOnProperty(name = "alert.websocket.relay", havingValue = "redis")
+public class RedisOfflineAlertInbox implements OfflineAlertInbox {
+
+    private static final String KEY_PREFIX = "ws:inbox:";
+
+    private static final RedisScript<Long> STORE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('RPUSH', KEYS[1], ARGV[1]) " +
+            "redis.call('LTRIM', KEYS[1], -tonumber(ARGV[2]), -1) " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[3]) " +
+            "return 1", Long.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> DRAIN_SCRIPT = new DefaultRedisScript<>(
+            "local messages = redis.call('LRANGE', KEYS[1], 0, -1) " +
+            "redis.call('DEL', KEYS[1]) " +
+            "return messages", List.class);
+
+    @Autowired
+    @Qualifier("jsonRedisTemplate")
+    private RedisTemplate<String, Object> jsonRedisTemplate;
+
+    @Value("${alert.websocket.inbox.max-messages:50}")
+    private int maxMessages;
+
+    @Value("${alert.websocket.inbox.ttl-hours:72}")
+    private long ttlHours;
+
+    @Override
+    public void store(String mail, String payload) {
+        jsonRedisTemplate.execute(STORE_SCRIPT, List.of(key(mail)),
+                payload, String.valueOf(maxMessages), String.valueOf(ttlHours * 3600));
+    }
+
+    @Override
+    public List<String> drain(String mail) {
+        List<?> messages = jsonRedisTemplate.execute(DRAIN_SCRIPT, List.of(key(mail)));
+        List<String> payloads = new ArrayList<>();
+        if (messages != null) {
+            for (Object message : messages) {
+                payloads.add(String.valueOf(message));
+            }
+        }
+        return payloads;
+    }
+
+    private String key(String mail) {
+        return KEY_PREFIX + UserPresenceRegistry.normalize(mail);
+    }
+}
@@ -0,0 +1,114 @@
+package com.vahabvahabov.SilentSignals.service.imp;
+
+import com.vahabvahabov.SilentSignals.exception.PinStoreUnavailableException;
+import com.vahabvahabov.SilentSignals.service.PinStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Cluster-wide {@link PinStore}: one Redis hash per pending PIN, so a PIN sent by one node can be
+ * verified on any other. Verification runs as a Lua script, which makes the compare, the attempt
+ * count and the consume a single step.
+ * <p>
+ * The hash records its own expiry, read from the Redis clock so nodes need not agree on the time,
+ * and Redis keeps it for {@code pin.expired-grace-seconds} beyond that; a PIN entered in that
+ * window is reported as expired instead of missing. There is no per-node fallback, since a PIN
+ * issued through one store could not be verified through the other: while Redis is unreachable,
+ * issuing and verifying fail with {@link PinStoreUnavailableException}, answered as 503.
+ */
+@Service
+@ConditionalOnProperty(name = "pin.store", havingValue = "redis")
+public class RedisPinStore implements PinStore {
+
+    private static final String KEY_PREFIX = "pin:";
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // ARGV: pin, ttl millis, grace millis. Replaces any pending PIN and resets its attempt count.
+    private static final RedisScript<Long> ISSUE_SCRIPT = new DefaultRedisScript<>(
+            "local time = redis.call('TIME') " +
+            "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) " +
+            "redis.call('HSET', KEYS[1], 'pin', ARGV[1], 'attempts', 0, " +
+            "  'expires_at', string.format('%.0f', now + tonumber(ARGV[2]))) " +
+            "redis.call('PEXPIRE', KEYS[1], tonumber(ARGV[2]) + tonumber(ARGV[3])) " +
+            "return 1", Long.class);
+
+    // ARGV: pin, max attempts. Returns 0 if no PIN is pending, 1 if verified, 2 if incorrect,
+    // 3 if expired. An expired PIN is consumed.
+    private static final RedisScript<Long> VERIFY_SCRIPT = new DefaultRedisScript<>(
+            "local entry = redis.call('HMGET', KEYS[1], 'pin', 'expires_at') " +
+            "local pin = entry[1] " +
+            "if not pin then return 0 end " +
+            "local time = redis.call('TIME') " +
+            "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) " +
+            "if now >= tonumber(entry[2]) then " +
+            "  redis.call('DEL', KEYS[1]) " +
+            "  return 3 " +
+            "end " +
+            "if pin == ARGV[1] then " +
+            "  redis.call('DEL', KEYS[1]) " +
+            "  return 1 " +
+            "end " +
+            "if redis.call('HINCRBY', KEYS[1], 'attempts', 1) >= tonumber(ARGV[2]) then " +
+            "  redis.call('DEL', KEYS[1]) " +
+            "end " +
+            "return 2", Long.class);
+
+    @Autowired
+    @Qualifier("jsonRedisTemplate")
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Value("${pin.ttl-minutes:10}")
+    private long ttlMinutes;
+
+    @Value("${pin.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${pin.expired-grace-seconds:300}")
+    private long expiredGraceSeconds;
+
+    @Override
+    public String issue(Purpose purpose, String mail) {
+        String pin = String.format("%06d", RANDOM.nextInt(1_000_000));
+        try {
+            redisTemplate.execute(ISSUE_SCRIPT, List.of(key(purpose, mail)),
+                    pin, String.valueOf(ttlMinutes * 60 * 1000), String.valueOf(expiredGraceSeconds * 1000));
+        } catch (DataAccessException e) {
+            throw new PinStoreUnavailableException(e);
+        }
+        return pin;
+    }
+
+    @Override
+    public Verification verify(Purpose purpose, String mail, String pin) {
+        Long reply;
+        try {
+            reply = redisTemplate.execute(VERIFY_SCRIPT, List.of(key(purpose, mail)),
+                    pin, String.valueOf(maxAttempts));
+        } catch (DataAccessException e) {
+            throw new PinStoreUnavailableException(e);
+        }
+        if (reply == null || reply == 0) {
+            return Verification.NOT_FOUND;
+        }
+        if (reply == 3) {
+            return Verification.EXPIRED;
+        }
+        return reply == 1 ? Verification.VERIFIED : Verification.INCORRECT;
+    }
+
+    private static String key(Purpose purpose, String mail) {
+        return KEY_PREFIX + purpose.name().toLowerCase(Locale.ROOT) + ":" + mail.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,187 @@
+package com.vahabvahabov.SilentSignals.service.imp;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vahabvahabov.SilentSignals.security.InMemoryRateLimiterUtil;
+import com.vahabvahabov.SilentSignals.service.RateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Cluster-wide sliding-window limiter: the same estimate as {@link InMemoryRateLimiterUtil}, kept
+ * in one Redis hash per user and updated by a Lua script, so every node counts against the same
+ * window. The script reads the Redis clock, so node clock skew cannot shift windows.
+ * <p>
+ * A rejection stays valid until its wait has passed (other nodes can only add to the count), so
+ * rejected users are remembered locally and turned away without a round trip. If Redis fails, the
+ * in-memory limiter answers for {@code rate.limit.redis.retry-after-ms} before Redis is tried again.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "rate.limit.backend", havingValue = "redis")
+public class RedisRateLimiter implements RateLimiter {
+
+    private static final String KEY_PREFIX = "rl:";
+
+    // ARGV: limit, window millis, 1 to consume a slot. Returns {allowed, millis until allowed}.
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SCRIPT = new DefaultRedisScript<>(
+            "local limit = tonumber(ARGV[1]) " +
+            "local window = tonumber(ARGV[2]) " +
+            "local consume = ARGV[3] == '1' " +
+            "local time = redis.call('TIME') " +
+            "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) " +
+            "local index = math.floor(now / window) " +
+            "local state = redis.call('HMGET', KEYS[1], 'w', 'p', 'c') " +
+            "local w = tonumber(state[1]) or index " +
+            "local p = tonumber(state[2]) or 0 " +
+            "local c = tonumber(state[3]) or 0 " +
+            "if w < index then " +
+            "  if w == index - 1 then p = c else p = 0 end " +
+            "  c = 0 " +
+            "  w = index " +
+            "end " +
+            "local elapsed = math.max(now - w * window, 0) " +
+            "local allowed = 0 " +
+            "if p * (window - elapsed) / window + c < limit and c < limit then " +
+            "  allowed = 1 " +
+            "  if consume then c = c + 1 end " +
+            "end " +
+            "if consume then " +
+            "  redis.call('HSET', KEYS[1], 'w', w, 'p', p, 'c', c) " +
+            "  redis.call('PEXPIRE', KEYS[1], 2 * window) " +
+            "end " +
+            "local wait = 0 " +
+            "if c >= limit then " +
+            "  wait = (window - elapsed) + math.ceil((1 - (limit - 1) / c) * window) " +
+            "elseif p > 0 and p * (window - elapsed) / window + c >= limit then " +
+            "  wait = math.ceil((1 - (limit - 1 - c) / p) * window) - elapsed " +
+            "end " +
+            "return {allowed, math.max(wait, 0)}", List.class);
+
+    private final Logger logger = LoggerFactory.getLogger(RedisRateLimiter.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final InMemoryRateLimiterUtil fallback;
+    private final long retryAfterMillis;
+    private final LongSupplier clock;
+    private final Cache<Long, Long> rejectedUntil;
+    private volatile long redisUnavailableUntil;
+
+    @Autowired
+    public RedisRateLimiter(@Qualifier("jsonRedisTemplate") RedisTemplate<String, Object> redisTemplate,
+                            InMemoryRateLimiterUtil fallback,
+                            @Value("${rate.limit.redis.near-cache-ms:5000}") long nearCacheMillis,
+                            @Value("${rate.limit.redis.near-cache-size:10000}") long nearCacheSize,
+                            @Value("${rate.limit.redis.retry-after-ms:5000}") long retryAfterMillis) {
+        this(redisTemplate, fallback, nearCacheMillis, nearCacheSize, retryAfterMillis, System::currentTimeMillis);
+    }
+
+    RedisRateLimiter(RedisTemplate<String, Object> redisTemplate, InMemoryRateLimiterUtil fallback,
+                     long nearCacheMillis, long nearCacheSize, long retryAfterMillis, LongSupplier clock) {
+        this.redisTemplate = redisTemplate;
+        this.fallback = fallback;
+        this.retryAfterMillis = retryAfterMillis;
+        this.clock = clock;
+        this.rejectedUntil = Caffeine.newBuilder()
+                .maximumSize(nearCacheSize)
+                .expireAfterWrite(Duration.ofMillis(nearCacheMillis))
+                .build();
+    }
+
+    @Override
+    public boolean isAllowed(Long userId) {
+        long now = clock.getAsLong();
+        if (rejectedLocallyFor(userId, now) > 0) {
+            return false;
+        }
+        if (now < redisUnavailableUntil) {
+            return fallback.isAllowed(userId);
+        }
+        try {
+            Verdict verdict = evaluate(userId, true);
+            if (!verdict.allowed() && verdict.waitMillis() > 0) {
+                rejectedUntil.put(userId, now + verdict.waitMillis());
+            }
+            return verdict.allowed();
+        } catch (DataAccessException e) {
+            markUnavailable(now, e);
+            return fallback.isAllowed(userId);
+        }
+    }
+
+    @Override
+    public boolean wouldAllow(Long userId) {
+        long now = clock.getAsLong();
+        if (rejectedLocallyFor(userId, now) > 0) {
+            return false;
+        }
+        if (now < redisUnavailableUntil) {
+            return fallback.wouldAllow(userId);
+        }
+        try {
+            return evaluate(userId, false).allowed();
+        } catch (DataAccessException e) {
+            markUnavailable(now, e);
+            return fallback.wouldAllow(userId);
+        }
+    }
+
+    @Override
+    public Long getTimeUntilReset(Long userId) {
+        long now = clock.getAsLong();
+        long waitMillis = rejectedLocallyFor(userId, now);
+        if (waitMillis > 0) {
+            return (waitMillis + 999) / 1000;
+        }
+        if (now < redisUnavailableUntil) {
+            return fallback.getTimeUntilReset(userId);
+        }
+        try {
+            return (evaluate(userId, false).waitMillis() + 999) / 1000;
+        } catch (DataAccessException e) {
+            markUnavailable(now, e);
+            return fallback.getTimeUntilReset(userId);
+        }
+    }
+
+    private long rejectedLocallyFor(Long userId, long now) {
+        Long until = rejectedUntil.getIfPresent(userId);
+        return until == null ? 0 : Math.max(until - now, 0);
+    }
+
+    private Verdict evaluate(Long userId, boolean consume) {
+        List<?> reply = redisTemplate.execute(SCRIPT, List.of(KEY_PREFIX + userId),
+                String.valueOf(fallback.getLimit(userId)),
+                String.valueOf(fallback.getWindowMillis()),
+                consume ? "1" : "0");
+        if (reply == null || reply.size() < 2) {
+            throw new IllegalStateException("Unexpected rate limit script reply: " + reply);
+        }
+        return new Verdict(((Number) reply.get(0)).longValue() == 1, ((Number) reply.get(1)).longValue());
+    }
+
+    private void markUnavailable(long now, DataAccessException e) {
+        if (now >= redisUnavailableUntil) {
+            logger.warn("Redis rate limiter unavailable, using per-node limits for {} ms: {}", retryAfterMillis, e.getMessage());
+        }
+        redisUnavailableUntil = now + retryAfterMillis;
+    }
+
+    private record Verdict(boolean allowed, long waitMillis) {
+    }
+}
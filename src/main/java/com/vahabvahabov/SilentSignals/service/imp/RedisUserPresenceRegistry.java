@@ -0,0 +1,106 @@
+package com.vahabvahabov.SilentSignals.service.imp;
+
+import com.vahabvahabov.SilentSignals.service.UserPresenceRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shares presence between nodes: one Redis set of session ids per mail. The key disappears with
+ * its last session. Each node also re-adds its own sessions and renews their keys every
+ * {@code alert.websocket.presence-refresh-interval-ms}, so the short
+ * {@code alert.websocket.presence-ttl-seconds} only runs out once no live node holds a session
+ * for the mail, for example after a node died without publishing disconnects.
+ */
+@Service
+@ConditionalOnProperty(name = "alert.websocket.relay", havingValue = "redis")
+public class RedisUserPresenceRegistry implements UserPresenceRegistry {
+
+    private static final String KEY_PREFIX = "ws:presence:";
+
+    private final Logger logger = LoggerFactory.getLogger(RedisUserPresenceRegistry.class);
+
+    @Autowired
+    @Qualifier("jsonRedisTemplate")
+    private RedisTemplate<String, Object> jsonRedisTemplate;
+
+    @Value("${alert.websocket.presence-ttl-seconds:180}")
+    private long presenceTtlSeconds;
+
+    // Sessions connected to this node, renewed in Redis by refreshPresence.
+    private final Map<String, Set<String>> localSessionsByMail = new ConcurrentHashMap<>();
+
+    @Override
+    public void sessionConnected(String mail, String sessionId) {
+        String normalized = UserPresenceRegistry.normalize(mail);
+        localSessionsByMail.computeIfAbsent(normalized, key -> ConcurrentHashMap.newKeySet()).add(sessionId);
+        String key = KEY_PREFIX + normalized;
+        jsonRedisTemplate.opsForSet().add(key, sessionId);
+        jsonRedisTemplate.expire(key, Duration.ofSeconds(presenceTtlSeconds));
+    }
+
+    @Override
+    public void sessionDisconnected(String mail, String sessionId) {
+        String normalized = UserPresenceRegistry.normalize(mail);
+        localSessionsByMail.computeIfPresent(normalized, (key, sessions) -> {
+            sessions.remove(sessionId);
+            return sessions.isEmpty() ? null : sessions;
+        });
+        jsonRedisTemplate.opsForSet().remove(KEY_PREFIX + normalized, sessionId);
+    }
+
+    /**
+     * Re-adds this node's sessions in one pipeline, which also restores them if their key expired
+     * while Redis was unreachable.
+     */
+    @Scheduled(fixedDelayString = "${alert.websocket.presence-refresh-interval-ms:60000}")
+    public void refreshPresence() {
+        if (localSessionsByMail.isEmpty()) {
+            return;
+        }
+        try {
+            jsonRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                localSessionsByMail.forEach((mail, sessions) -> {
+                    byte[] key = (KEY_PREFIX + mail).getBytes(StandardCharsets.UTF_8);
+                    byte[][] members = sessions.stream()
+                            .map(sessionId -> sessionId.getBytes(StandardCharsets.UTF_8))
+                            .toArray(byte[][]::new);
+                    if (members.length > 0) {
+                        connection.setCommands().sAdd(key, members);
+                        connection.keyCommands().expire(key, presenceTtlSeconds);
+                    }
+                });
+                return null;
+            });
+        } catch (Exception e) {
+            logger.warn("Presence refresh failed for {} users: {}", localSessionsByMail.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isOnline(String mail) {
+        if (mail == null) {
+            return false;
+        }
+        try {
+            return Boolean.TRUE.equals(jsonRedisTemplate.hasKey(KEY_PREFIX + UserPresenceRegistry.normalize(mail)));
+        } catch (Exception e) {
+            // Pushing to a user who turns out to be offline is harmless; skipping an online one is not.
+            logger.warn("Presence lookup failed, assuming {} is online: {}", mail, e.getMessage());
+            return true;
+        }
+    }
+}
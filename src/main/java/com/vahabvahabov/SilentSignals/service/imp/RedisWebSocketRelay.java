@@ -0,0 +1,82 @@
+package com.vahabvahabov.SilentSignals.service.imp;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vahabvahabov.SilentSignals.dto.WebSocketRelayMessage;
+import com.vahabvahabov.SilentSignals.exception.NotificationDeliveryException;
+import com.vahabvahabov.SilentSignals.service.WebSocketRelay;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Multi-node relay: each message is published once to a Redis channel and every node,
+ * including the publisher, forwards it to the sessions connected to its own broker.
+ */
+@Service
+@ConditionalOnProperty(name = "alert.websocket.relay", havingValue = "redis")
+public class RedisWebSocketRelay implements WebSocketRelay, MessageListener {
+
+    private final Logger logger = LoggerFactory.getLogger(RedisWebSocketRelay.class);
+
+    @Autowired
+    @Qualifier("jsonRedisTemplate")
+    private RedisTemplate<String, Object> jsonRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${alert.websocket.redis-channel:silent-signals:ws-alerts}")
+    private String channel;
+
+    @PostConstruct
+    public void subscribe() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(channel));
+        logger.info("WebSocket relay subscribed to Redis channel {}", channel);
+    }
+
+    @Override
+    public void sendToUser(String user, String destination, String payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(new WebSocketRelayMessage(user, destination, payload));
+        } catch (JsonProcessingException e) {
+            throw new NotificationDeliveryException("Failed to serialize WebSocket message: " + e.getMessage(), false, e);
+        }
+        try {
+            jsonRedisTemplate.convertAndSend(channel, json);
+        } catch (Exception e) {
+            throw new NotificationDeliveryException("Failed to publish WebSocket message to Redis: " + e.getMessage(), true, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            WebSocketRelayMessage relayMessage = objectMapper.readValue(
+                    new String(message.getBody(), StandardCharsets.UTF_8), WebSocketRelayMessage.class);
+            messagingTemplate.convertAndSendToUser(relayMessage.getUser(), relayMessage.getDestination(), relayMessage.getPayload());
+        } catch (Exception e) {
+            logger.error("Failed to deliver relayed WebSocket message: {}", e.getMessage());
+        }
+    }
+}
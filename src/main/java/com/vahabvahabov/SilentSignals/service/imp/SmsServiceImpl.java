@@ -4,9 +4,14 @@ import com.twilio.Twilio;
 import com.twilio.exception.ApiException;
 import com.twilio.rest.api.v2010.account.Message;
 import com.twilio.type.PhoneNumber;
+import com.vahabvahabov.SilentSignals.exception.InvalidPhoneNumberException;
+import com.vahabvahabov.SilentSignals.exception.NotificationDeliveryException;
+import com.vahabvahabov.SilentSignals.service.PhoneNumberNormalizer;
 import com.vahabvahabov.SilentSignals.service.SmsService;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -24,29 +29,45 @@ public class SmsServiceImpl implements SmsService {
     @Value("${twilio.phone.number:}")
     private String twilioPhone;
 
+    @Autowired
+    private PhoneNumberNormalizer phoneNumberNormalizer;
+
+    private String formattedTwilioPhone;
+
     private boolean twilioInitialized = false;
 
+    @PostConstruct
+    public void init() {
+        if (twilioPhone == null || twilioPhone.isBlank()) {
+            return;
+        }
+        try {
+            formattedTwilioPhone = phoneNumberNormalizer.toE164(twilioPhone);
+        } catch (InvalidPhoneNumberException e) {
+            logger.error("Configured Twilio phone number is invalid: {}", e.getMessage());
+        }
+    }
+
     @Override
     public void sendSosAlert(String toPhone, String username, String description, String locationAddress) {
         logger.info("Attempting to send SMS to: {}", toPhone);
 
         if (!isTwilioConfigValid()) {
             logger.error("Cannot send SMS: Twilio configuration is invalid");
-            return;
+            throw new NotificationDeliveryException("Twilio configuration is invalid", false);
         }
 
-        String formattedToPhone = formatPhoneNumber(toPhone);
-        String formattedTwilioPhone = formatPhoneNumber(twilioPhone);
-
-        logger.debug("Formatted - To: {}, From: {}", formattedToPhone, formattedTwilioPhone);
-
-        if (isSameNumber(formattedToPhone, formattedTwilioPhone)) {
-            logger.warn("Skipping SMS - To and From numbers are the same: {}", formattedToPhone);
-            return;
+        String formattedToPhone;
+        try {
+            // Recipients are stored in E.164 form; only older outbox rows still carry raw numbers.
+            formattedToPhone = toPhone != null && toPhone.startsWith("+") ? toPhone : phoneNumberNormalizer.toE164(toPhone);
+        } catch (InvalidPhoneNumberException e) {
+            logger.error("Invalid phone number format: {}", toPhone);
+            throw new NotificationDeliveryException("Invalid phone number format: " + toPhone, false);
         }
 
-        if (!isValidPhoneNumber(formattedToPhone)) {
-            logger.error("Invalid phone number format: {}", formattedToPhone);
+        if (formattedToPhone.equals(formattedTwilioPhone)) {
+            logger.warn("Skipping SMS - To and From numbers are the same: {}", formattedToPhone);
             return;
         }
 
@@ -54,7 +75,7 @@ public class SmsServiceImpl implements SmsService {
 
         if (!twilioInitialized) {
             logger.error("Twilio not initialized, cannot send SMS");
-            return;
+            throw new NotificationDeliveryException("Twilio not initialized", true);
         }
 
         try {
@@ -82,19 +103,30 @@ public class SmsServiceImpl implements SmsService {
                 return;
             }
             logger.error("Twilio API error for {}: {}", formattedToPhone, e.getMessage());
+            throw new NotificationDeliveryException("Twilio API error: " + e.getMessage(), isRetryable(e), e);
 
         } catch (Exception e) {
             logger.error("Unexpected error sending SMS to {}: {}", formattedToPhone, e.getMessage());
+            throw new NotificationDeliveryException("Unexpected error sending SMS: " + e.getMessage(), true, e);
         }
     }
 
+    /**
+     * Twilio rejects bad requests (invalid or unreachable numbers) with 4xx codes that will fail
+     * the same way on every attempt; throttling and server errors are worth retrying.
+     */
+    private boolean isRetryable(ApiException e) {
+        Integer statusCode = e.getStatusCode();
+        return statusCode == null || statusCode == 429 || statusCode >= 500;
+    }
+
     /**
      * Check if Twilio configuration is valid
      */
     private boolean isTwilioConfigValid() {
         if (twilioSid == null || twilioSid.trim().isEmpty() ||
                 twilioToken == null || twilioToken.trim().isEmpty() ||
-                twilioPhone == null || twilioPhone.trim().isEmpty()) {
+                formattedTwilioPhone == null) {
             logger.error("Twilio configuration missing. SID: {}, Token: {}, Phone: {}",
                     twilioSid != null ? "SET" : "MISSING",
                     twilioToken != null ? "SET" : "MISSING",
@@ -104,34 +136,6 @@ public class SmsServiceImpl implements SmsService {
         return true;
     }
 
-    /**
-     * Check if two phone numbers are the same (ignoring formatting differences)
-     */
-    private boolean isSameNumber(String phone1, String phone2) {
-        if (phone1 == null || phone2 == null) return false;
-
-        String clean1 = phone1.replaceAll("[^\\d]", "");
-        String clean2 = phone2.replaceAll("[^\\d]", "");
-
-        boolean isSame = clean1.equals(clean2);
-
-        if (isSame) {
-            logger.debug("Detected same numbers: {} and {}", phone1, phone2);
-        }
-
-        return isSame;
-    }
-
-    /**
-     * Validate phone number format
-     */
-    private boolean isValidPhoneNumber(String phone) {
-        if (phone == null || phone.trim().isEmpty()) {
-            return false;
-        }
-        return phone.startsWith("+") && phone.replaceAll("[^\\d]", "").length() >= 10;
-    }
-
     /**
      * Initialize Twilio only once
      */
@@ -146,25 +150,4 @@ public class SmsServiceImpl implements SmsService {
             }
         }
     }
-
-    /**
-     * Format phone number to E.164 format
-     */
-    private String formatPhoneNumber(String phone) {
-        if (phone == null) return null;
-
-        String cleaned = phone.replaceAll("[^\\d+]", "");
-
-        if (cleaned.startsWith("994")) {
-            return "+" + cleaned;
-        } else if (cleaned.startsWith("0")) {
-            return "+994" + cleaned.substring(1);
-        } else if (cleaned.startsWith("+")) {
-            return cleaned;
-        } else if (cleaned.length() == 9) {
-            return "+994" + cleaned;
-        }
-
-        return cleaned;
-    }
 }
\ No newline at end of file
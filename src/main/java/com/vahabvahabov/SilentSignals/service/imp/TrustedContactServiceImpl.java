@@ -2,15 +2,19 @@ package com.vahabvahabov.SilentSignals.service.imp;
 
 import com.vahabvahabov.SilentSignals.dto.TrustedContactDTO;
 import com.vahabvahabov.SilentSignals.dto.UserDTO;
+import com.vahabvahabov.SilentSignals.exception.InvalidPhoneNumberException;
 import com.vahabvahabov.SilentSignals.model.User;
 import com.vahabvahabov.SilentSignals.model.contact.TrustedContact;
 import com.vahabvahabov.SilentSignals.repository.TrustedContractRepository;
 import com.vahabvahabov.SilentSignals.repository.UserRepository;
+import com.vahabvahabov.SilentSignals.service.PhoneNumberNormalizer;
 import com.vahabvahabov.SilentSignals.service.TrustedContactService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -30,23 +34,20 @@ public class TrustedContactServiceImpl implements TrustedContactService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PhoneNumberNormalizer phoneNumberNormalizer;
+
     @Override
     @Transactional
-    public TrustedContactDTO addTrustedContact(String username, TrustedContact trustedContact) {
+    public TrustedContactDTO addTrustedContact(Long userId, String username, TrustedContact trustedContact) {
         logger.info("Adding trusted contact for user: {}", username);
 
         logger.debug("Incoming trusted contact data - FullName: {}, Email: {}, Phone: {}, ContactType: {}, Priority: {}",
                 trustedContact.getFullName(), trustedContact.getEmail(), trustedContact.getPhone(),
                 trustedContact.getContactType(), trustedContact.getPriorityOrder());
 
-        Optional<User> optional = userRepository.findByUsername(username);
-        if(optional.isEmpty()) {
-            logger.warn("User not found: {}", username);
-            throw new RuntimeException("User not found.");
-        }
-
-        User user = optional.get();
-        logger.debug("Found user: {} with ID: {}", user.getUsername(), user.getId());
+        // The caller is already authenticated; a reference is enough to set the foreign key.
+        User user = userRepository.getReferenceById(userId);
 
         String email = trustedContact.getEmail().trim().toLowerCase();
         trustedContact.setEmail(email);
@@ -84,6 +85,19 @@ public class TrustedContactServiceImpl implements TrustedContactService {
             logger.debug("Set phone to null (was empty)");
         }
 
+        if (trustedContact.getPhone() != null) {
+            try {
+                trustedContact.setPhoneE164(phoneNumberNormalizer.toE164(trustedContact.getPhone()));
+                trustedContact.setPhoneInvalid(false);
+            } catch (InvalidPhoneNumberException e) {
+                logger.warn("Rejected trusted contact phone for user {}: {}", username, e.getMessage());
+                throw new RuntimeException("The phone number format is invalid.");
+            }
+        } else {
+            trustedContact.setPhoneE164(null);
+            trustedContact.setPhoneInvalid(false);
+        }
+
         try {
             logger.debug("Attempting to save trusted contact...");
             TrustedContact savedContact = trustedContractRepository.save(trustedContact);
@@ -92,9 +106,7 @@ public class TrustedContactServiceImpl implements TrustedContactService {
             TrustedContactDTO trustedContactDTO = new TrustedContactDTO();
             BeanUtils.copyProperties(savedContact, trustedContactDTO);
 
-            UserDTO userDTO = new UserDTO();
-            BeanUtils.copyProperties(user, userDTO);
-            trustedContactDTO.setUser(userDTO);
+            trustedContactDTO.setUser(owner(userId, username));
 
             logger.debug("Returning trusted contact DTO with email: {}", trustedContactDTO.getEmail());
             return trustedContactDTO;
@@ -114,7 +126,7 @@ public class TrustedContactServiceImpl implements TrustedContactService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<TrustedContactDTO> getAllTrustedContactsByUserId(Long userId) {
+    public List<TrustedContactDTO> getAllTrustedContactsByUserId(Long userId, String username) {
         logger.debug("Getting all trusted contacts for user ID: {}", userId);
 
         List<TrustedContactDTO> trustedContactDTOS = new ArrayList<>();
@@ -122,13 +134,11 @@ public class TrustedContactServiceImpl implements TrustedContactService {
 
         logger.debug("Found {} raw contacts for user ID: {}", userContacts.size(), userId);
 
+        UserDTO owner = owner(userId, username);
         for(TrustedContact trustedContact : userContacts) {
             TrustedContactDTO trustedContactDTO = new TrustedContactDTO();
             BeanUtils.copyProperties(trustedContact, trustedContactDTO);
-
-            UserDTO userDTO = new UserDTO();
-            BeanUtils.copyProperties(trustedContact.getUser(), userDTO);
-            trustedContactDTO.setUser(userDTO);
+            trustedContactDTO.setUser(owner);
 
             trustedContactDTOS.add(trustedContactDTO);
             logger.debug("Processed contact - ID: {}, Email: {}, FullName: {}",
@@ -144,19 +154,13 @@ public class TrustedContactServiceImpl implements TrustedContactService {
     public void removeTrustedContact(Long userId, Long trustedContactId) {
         logger.info("Removing trusted contact ID: {} for user ID: {}", trustedContactId, userId);
 
-        Optional<User> optional = userRepository.findById(userId);
         Optional<TrustedContact> contactOptional = trustedContractRepository.findById(trustedContactId);
 
-        if(optional.isEmpty()) {
-            logger.warn("User not found with ID: {}", userId);
-            throw new RuntimeException("User not found.");
-        }
         if (contactOptional.isEmpty()) {
             logger.warn("Trusted contact not found with ID: {}", trustedContactId);
             throw new RuntimeException("Trusted contact not found.");
         }
 
-        User user = optional.get();
         TrustedContact trustedContact = contactOptional.get();
 
         if(!trustedContact.getUser().getId().equals(userId)) {
@@ -189,4 +193,39 @@ public class TrustedContactServiceImpl implements TrustedContactService {
 
         return trustedContactDTOS;
     }
-}
\ No newline at end of file
+
+    // Built from the authenticated caller; reading it off the contact would load the user row.
+    private UserDTO owner(Long userId, String username) {
+        UserDTO userDTO = new UserDTO();
+        userDTO.setId(userId);
+        userDTO.setUsername(username);
+        return userDTO;
+    }
+
+    /**
+     * Contacts saved before phone_e164 existed get it filled in once; numbers that cannot be
+     * parsed are left empty and flagged phone_invalid, so they are not retried on every startup.
+     * Those contacts receive no SMS.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillNormalizedPhones() {
+        List<TrustedContact> contacts = trustedContractRepository.findByPhoneIsNotNullAndPhoneE164IsNullAndPhoneInvalidFalse();
+        if (contacts.isEmpty()) {
+            return;
+        }
+
+        int invalid = 0;
+        for (TrustedContact contact : contacts) {
+            try {
+                contact.setPhoneE164(phoneNumberNormalizer.toE164(contact.getPhone()));
+            } catch (InvalidPhoneNumberException e) {
+                contact.setPhoneInvalid(true);
+                invalid++;
+                logger.warn("Trusted contact {} has an invalid phone number, SMS disabled: {}", contact.getId(), e.getMessage());
+            }
+        }
+        trustedContractRepository.saveAll(contacts);
+        logger.info("Normalized phone numbers for {} trusted contacts ({} invalid)", contacts.size() - invalid, invalid);
+    }
+}
@@ -2,9 +2,12 @@ package com.vahabvahabov.SilentSignals.service.imp;
 
 import com.vahabvahabov.SilentSignals.model.User;
 import com.vahabvahabov.SilentSignals.repository.UserRepository;
+import com.vahabvahabov.SilentSignals.security.jwt.PrincipalCache;
+import com.vahabvahabov.SilentSignals.security.jwt.TokenVersionRegistry;
 import com.vahabvahabov.SilentSignals.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -14,6 +17,11 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
 
     @Override
     public Optional<User> findUserByMail(String mail) {
@@ -28,5 +36,14 @@ public class UserServiceImpl implements UserService {
     @Override
     public void saveNewUser(User user) {
         userRepository.save(user);
+        // Password, verification and profile changes all land here; drop the cached principal.
+        principalCache.evict(user.getId());
+        tokenVersionRegistry.advance(user.getId(), user.getTokenVersion());
+    }
+
+    @Override
+    @Transactional
+    public boolean upgradePasswordHash(Long userId, String currentHash, String newHash) {
+        return userRepository.replacePasswordHash(userId, currentHash, newHash) == 1;
     }
 }
@@ -0,0 +1,26 @@
+-- Runs after Hibernate's schema update (spring.jpa.defer-datasource-initialization=true).
+
+-- Reminder selection only ever looks at ACTIVE alerts, so keep resolved/expired ones out of the index.
+CREATE INDEX IF NOT EXISTS idx_sos_alert_next_reminder_active
+    ON silent_signals.sos_alert (next_reminder_at, id)
+    WHERE is_alert = 'ACTIVE';
+
+-- Alerts created before next_reminder_at existed; legacy "REMINDER:" copies are never reminded again.
+UPDATE silent_signals.sos_alert
+SET next_reminder_at = triggered_at + INTERVAL '5 minutes'
+WHERE is_alert = 'ACTIVE'
+  AND next_reminder_at IS NULL
+  AND COALESCE(description, '') NOT LIKE 'REMINDER:%';
+
+-- Optimistic locking on sos_alert was added after rows existed.
+UPDATE silent_signals.sos_alert SET version = 0 WHERE version IS NULL;
+
+-- UserRepository.findByUsername matches case-insensitively, which a plain username index cannot serve.
+CREATE INDEX IF NOT EXISTS idx_user_username_lower
+    ON silent_signals."user" (LOWER(username));
+
+-- Token versions were added after users existed; version 0 matches tokens issued without one.
+UPDATE silent_signals."user" SET token_version = 0 WHERE token_version IS NULL;
+
+-- Invalid-number flag was added after contacts existed; unflagged rows are retried by the phone backfill.
+UPDATE silent_signals.trusted_contact SET phone_invalid = FALSE WHERE phone_invalid IS NULL;
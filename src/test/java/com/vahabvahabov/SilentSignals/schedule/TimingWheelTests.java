@@ -0,0 +1,157 @@
+package com.vahabvahabov.SilentSignals.schedule;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTests {
+
+    private static final long TICK_MILLIS = 10;
+    private static final int WHEEL_SIZE = 8;
+
+    // 10 ms ticks over 8 buckets: the first wheel spans 80 ms, the first overflow wheel 640 ms.
+    private final TimingWheel wheel = new TimingWheel("test", TICK_MILLIS, WHEEL_SIZE, Runnable::run);
+
+    @AfterEach
+    void stopWheel() {
+        wheel.stop();
+    }
+
+    @Test
+    void neverFiresBeforeItsDeadline() throws Exception {
+        int tasks = 200;
+        CountDownLatch fired = new CountDownLatch(tasks);
+        AtomicInteger early = new AtomicInteger();
+
+        for (int i = 0; i < tasks; i++) {
+            long delayMillis = ThreadLocalRandom.current().nextLong(0, 300);
+            long notBefore = System.currentTimeMillis() + delayMillis;
+            wheel.schedule(() -> {
+                if (System.currentTimeMillis() < notBefore) {
+                    early.incrementAndGet();
+                }
+                fired.countDown();
+            }, delayMillis);
+        }
+
+        assertTrue(fired.await(5, TimeUnit.SECONDS));
+        assertEquals(0, early.get());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void firesTasksHeldInOverflowWheelsOnceTheyCascadeDown() throws Exception {
+        // Beyond the first wheel (80 ms) and beyond the first overflow wheel (640 ms).
+        long[] delays = {500, 1500};
+        CountDownLatch fired = new CountDownLatch(delays.length);
+        List<AtomicLong> lateness = new ArrayList<>();
+
+        for (long delayMillis : delays) {
+            long notBefore = System.currentTimeMillis() + delayMillis;
+            AtomicLong late = new AtomicLong(-1);
+            lateness.add(late);
+            wheel.schedule(() -> {
+                late.set(System.currentTimeMillis() - notBefore);
+                fired.countDown();
+            }, delayMillis);
+        }
+
+        assertTrue(fired.await(5, TimeUnit.SECONDS));
+        for (AtomicLong late : lateness) {
+            assertTrue(late.get() >= 0, "fired " + -late.get() + " ms early");
+            assertTrue(late.get() < 500, "fired " + late.get() + " ms late");
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelledTaskNeverFires() throws Exception {
+        int tasks = 50;
+        AtomicIntegerArray runs = new AtomicIntegerArray(tasks);
+        List<TimingWheel.Timeout> timeouts = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            int task = i;
+            // Spread over both the first wheel and the overflow wheel.
+            timeouts.add(wheel.schedule(() -> runs.incrementAndGet(task), 50 + i * 10L));
+        }
+        for (int i = 0; i < tasks; i += 2) {
+            assertTrue(timeouts.get(i).cancel());
+            assertFalse(timeouts.get(i).cancel());
+        }
+
+        TimeUnit.MILLISECONDS.sleep(50 + tasks * 10L + 400);
+
+        for (int i = 0; i < tasks; i++) {
+            assertEquals(i % 2 == 0 ? 0 : 1, runs.get(i), "task " + i);
+        }
+        assertFalse(timeouts.get(1).cancel());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void concurrentScheduleAndCancelLosesNoTaskAndRunsNoneTwice() throws Exception {
+        int threads = 8;
+        int tasksPerThread = 1_000;
+        int tasks = threads * tasksPerThread;
+        AtomicIntegerArray runs = new AtomicIntegerArray(tasks);
+        boolean[] cancelled = new boolean[tasks];
+        AtomicInteger expected = new AtomicInteger(tasks);
+        AtomicInteger fired = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int offset = t * tasksPerThread;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = offset; i < offset + tasksPerThread; i++) {
+                        int task = i;
+                        TimingWheel.Timeout timeout = wheel.schedule(() -> {
+                            runs.incrementAndGet(task);
+                            fired.incrementAndGet();
+                        }, ThreadLocalRandom.current().nextLong(0, 200));
+                        if (i % 3 == 0 && timeout.cancel()) {
+                            cancelled[task] = true;
+                            expected.decrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        pool.shutdown();
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (fired.get() < expected.get() && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        TimeUnit.MILLISECONDS.sleep(300);
+
+        assertEquals(expected.get(), fired.get());
+        for (int i = 0; i < tasks; i++) {
+            assertEquals(cancelled[i] ? 0 : 1, runs.get(i), "task " + i);
+        }
+        assertEquals(0, wheel.size());
+    }
+}
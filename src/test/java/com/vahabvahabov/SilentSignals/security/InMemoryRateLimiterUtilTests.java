@@ -0,0 +1,186 @@
+package com.vahabvahabov.SilentSignals.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryRateLimiterUtilTests {
+
+    private static final long WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    @Test
+    void neverAdmitsMoreThanTheLimitUnderContention() throws Exception {
+        InMemoryRateLimiterUtil limiter = new InMemoryRateLimiterUtil(50, WINDOW_MILLIS, Map.of(), () -> 1_000L);
+        int threads = 32;
+        int attemptsPerThread = 2_000;
+        AtomicInteger admitted = new AtomicInteger();
+
+        runConcurrently(threads, () -> {
+            for (int i = 0; i < attemptsPerThread; i++) {
+                if (limiter.isAllowed(7L)) {
+                    admitted.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(50, admitted.get());
+        assertFalse(limiter.wouldAllow(7L));
+    }
+
+    @Test
+    void neverOverAdmitsWhileTheWindowRollsOver() throws Exception {
+        // Every call advances the clock, so threads race across window boundaries.
+        AtomicLong clock = new AtomicLong();
+        long windowMillis = 10_000;
+        InMemoryRateLimiterUtil limiter = new InMemoryRateLimiterUtil(20, windowMillis, Map.of(), () -> clock.addAndGet(1));
+        int windows = 5;
+        AtomicInteger admitted = new AtomicInteger();
+
+        runConcurrently(16, () -> {
+            while (clock.get() < windows * windowMillis) {
+                if (limiter.isAllowed(7L)) {
+                    admitted.incrementAndGet();
+                }
+            }
+        });
+
+        // A sliding window never admits more per window than a fixed one would.
+        assertTrue(admitted.get() <= 20 * (windows + 1), "admitted " + admitted.get());
+    }
+
+    @Test
+    void limitsEachUserIndependently() throws Exception {
+        InMemoryRateLimiterUtil limiter = new InMemoryRateLimiterUtil(5, WINDOW_MILLIS, Map.of(), () -> 1_000L);
+        int users = 100;
+        AtomicInteger[] admitted = new AtomicInteger[users];
+        for (int i = 0; i < users; i++) {
+            admitted[i] = new AtomicInteger();
+        }
+
+        runConcurrently(16, () -> {
+            for (int round = 0; round < 20; round++) {
+                for (int user = 0; user < users; user++) {
+                    if (limiter.isAllowed((long) user)) {
+                        admitted[user].incrementAndGet();
+                    }
+                }
+            }
+        });
+
+        for (int user = 0; user < users; user++) {
+            assertEquals(5, admitted[user].get(), "user " + user);
+        }
+    }
+
+    @Test
+    void previousWindowDecaysInsteadOfResetting() {
+        AtomicLong clock = new AtomicLong(0);
+        InMemoryRateLimiterUtil limiter = new InMemoryRateLimiterUtil(10, WINDOW_MILLIS, Map.of(), clock::get);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.isAllowed(1L));
+        }
+        assertFalse(limiter.isAllowed(1L));
+        assertTrue(limiter.getTimeUntilReset(1L) > 0);
+
+        // Halfway into the next window the previous 10 still weigh 5.
+        clock.set(WINDOW_MILLIS + WINDOW_MILLIS / 2);
+        int admitted = 0;
+        while (limiter.isAllowed(1L)) {
+            admitted++;
+        }
+        assertEquals(5, admitted);
+
+        clock.set(3 * WINDOW_MILLIS);
+        assertEquals(0L, limiter.getTimeUntilReset(1L));
+        assertTrue(limiter.isAllowed(1L));
+    }
+
+    @Test
+    void userOverrideReplacesDefaultLimit() {
+        InMemoryRateLimiterUtil limiter = new InMemoryRateLimiterUtil(2, WINDOW_MILLIS, Map.of(42L, 4), () -> 1_000L);
+        int admitted = 0;
+        while (limiter.isAllowed(42L)) {
+            admitted++;
+        }
+        assertEquals(4, admitted);
+        assertEquals(2, limiter.getLimit(43L));
+    }
+
+    @Test
+    void evictsOnlyStatesThatNoLongerAffectTheEstimate() {
+        AtomicLong clock = new AtomicLong(0);
+        InMemoryRateLimiterUtil limiter = new InMemoryRateLimiterUtil(3, WINDOW_MILLIS, Map.of(), clock::get);
+        for (long user = 0; user < 1_000; user++) {
+            assertTrue(limiter.isAllowed(user));
+        }
+        assertTrue(limiter.isAllowed(1L));
+        assertTrue(limiter.isAllowed(1L));
+        assertEquals(1_000, limiter.getTrackedUserCount());
+
+        // One window later the previous counts still weigh in, so nothing may go.
+        clock.set(WINDOW_MILLIS);
+        limiter.evictIdleStates();
+        assertEquals(1_000, limiter.getTrackedUserCount());
+        assertFalse(limiter.wouldAllow(1L));
+
+        clock.set(2 * WINDOW_MILLIS);
+        assertTrue(limiter.isAllowed(5L));
+        limiter.evictIdleStates();
+        assertEquals(1, limiter.getTrackedUserCount());
+        assertTrue(limiter.wouldAllow(1L));
+        assertTrue(limiter.isAllowed(1L));
+        assertEquals(2, limiter.getTrackedUserCount());
+    }
+
+    @Test
+    void admissionsRacingTheSweeperAreNeverLost() throws Exception {
+        AtomicLong clock = new AtomicLong();
+        long windowMillis = 1_000;
+        InMemoryRateLimiterUtil limiter = new InMemoryRateLimiterUtil(1_000, windowMillis, Map.of(), clock::get);
+        AtomicInteger admitted = new AtomicInteger();
+
+        // Each round jumps two windows so the state is evictable just as the workers hit it. A count
+        // lost to the sweeper would restart from zero and admit more than the limit.
+        for (int round = 0; round < 50; round++) {
+            clock.addAndGet(2 * windowMillis);
+            admitted.set(0);
+            runConcurrently(8, () -> {
+                for (int i = 0; i < 200; i++) {
+                    if (limiter.isAllowed(9L)) {
+                        admitted.incrementAndGet();
+                    }
+                    limiter.evictIdleStates();
+                }
+            });
+            assertEquals(1_000, admitted.get());
+        }
+    }
+
+    private static void runConcurrently(int threads, Runnable task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    task.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,99 @@
+package com.vahabvahabov.SilentSignals.security;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PooledJavaMailSenderTests {
+
+    private ServerSetup serverSetup;
+    private GreenMail greenMail;
+    private CountingMailSender sender;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        serverSetup = new ServerSetup(port, "127.0.0.1", ServerSetup.PROTOCOL_SMTP);
+        greenMail = new GreenMail(serverSetup);
+        greenMail.start();
+
+        // Idle connections are never probed, so a dropped one is only noticed when a send fails.
+        sender = new CountingMailSender(2, 60_000, 60_000, 1_000);
+        sender.setHost("127.0.0.1");
+        sender.setPort(port);
+    }
+
+    @AfterEach
+    void stopServer() {
+        sender.destroy();
+        greenMail.stop();
+    }
+
+    @Test
+    void reusesOneConnectionForSequentialSends() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            sender.send(message("contact" + i + "@example.com"));
+        }
+
+        assertEquals(1, sender.connections.get());
+        assertEquals(1, sender.getIdleConnectionCount());
+        assertEquals(3, greenMail.getReceivedMessages().length);
+    }
+
+    @Test
+    void reconnectsAndRetriesAfterTheServerDropsTheConnection() throws Exception {
+        sender.send(message("first@example.com"));
+        assertEquals(1, sender.connections.get());
+
+        // Restarting the server closes the pooled connection under the sender.
+        greenMail.stop();
+        greenMail = new GreenMail(serverSetup);
+        greenMail.start();
+
+        sender.send(message("second@example.com"));
+
+        assertEquals(2, sender.connections.get());
+        assertEquals(1, sender.getIdleConnectionCount());
+        assertEquals(1, greenMail.getReceivedMessages().length);
+        assertEquals("second@example.com", greenMail.getReceivedMessages()[0].getAllRecipients()[0].toString());
+    }
+
+    private MimeMessage message(String to) throws Exception {
+        MimeMessage message = sender.createMimeMessage();
+        message.setFrom(new InternetAddress("alerts@silentsignals.test"));
+        message.setRecipient(MimeMessage.RecipientType.TO, new InternetAddress(to));
+        message.setSubject("SOS Alert");
+        message.setText("Test alert");
+        return message;
+    }
+
+    private static final class CountingMailSender extends PooledJavaMailSender {
+
+        private final AtomicInteger connections = new AtomicInteger();
+
+        private CountingMailSender(int poolSize, long maxIdleMillis, long validateAfterMillis, long borrowTimeoutMillis) {
+            super(poolSize, maxIdleMillis, validateAfterMillis, borrowTimeoutMillis);
+        }
+
+        @Override
+        protected Transport connectTransport() throws MessagingException {
+            connections.incrementAndGet();
+            return super.connectTransport();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.vahabvahabov.SilentSignals.service.imp;
+
+import com.vahabvahabov.SilentSignals.model.alert.AlertDelivery;
+import com.vahabvahabov.SilentSignals.model.alert.NotificationChannel;
+import com.vahabvahabov.SilentSignals.model.alert.NotificationOutbox;
+import com.vahabvahabov.SilentSignals.model.alert.NotificationResult;
+import com.vahabvahabov.SilentSignals.model.alert.NotificationTask;
+import com.vahabvahabov.SilentSignals.model.alert.OutboxStatus;
+import com.vahabvahabov.SilentSignals.repository.AlertDeliveryRepository;
+import com.vahabvahabov.SilentSignals.repository.NotificationOutboxRepository;
+import com.vahabvahabov.SilentSignals.repository.SOSAlertRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationOutboxServiceImplTests {
+
+    private static final long ALERT_ID = 10L;
+
+    @Mock
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Mock
+    private AlertDeliveryRepository alertDeliveryRepository;
+
+    @Mock
+    private SOSAlertRepository sosAlertRepository;
+
+    @InjectMocks
+    private NotificationOutboxServiceImpl outboxService;
+
+    @BeforeEach
+    void configure() {
+        ReflectionTestUtils.setField(outboxService, "maxAttempts", 5);
+        ReflectionTestUtils.setField(outboxService, "initialRetryDelayMillis", 2000L);
+        ReflectionTestUtils.setField(outboxService, "maxRetryDelayMillis", 300000L);
+    }
+
+    @Test
+    void rowsOfAnAlertClosedWhileInFlightAreNeverRequeued() {
+        // cancelPending ran while the relay was sending, so the rows come back CANCELLED.
+        NotificationOutbox failed = claimed(1L, OutboxStatus.CANCELLED);
+        NotificationOutbox rejected = claimed(2L, OutboxStatus.CANCELLED);
+        NotificationOutbox delivered = claimed(3L, OutboxStatus.CANCELLED);
+        when(notificationOutboxRepository.lockAllById(anyCollection())).thenReturn(List.of(failed, rejected, delivered));
+        when(sosAlertRepository.findClosedIds(anyCollection())).thenReturn(List.of(ALERT_ID));
+
+        outboxService.complete(List.of(
+                NotificationResult.failure(task(failed), "SMTP timeout", true, 30),
+                NotificationResult.rejected(task(rejected), "Bulkhead email is full"),
+                NotificationResult.success(task(delivered), 20)));
+
+        assertEquals(OutboxStatus.CANCELLED, failed.getStatus());
+        assertEquals(1, failed.getAttempts());
+        assertNull(failed.getClaimedAt());
+        assertEquals(OutboxStatus.CANCELLED, rejected.getStatus());
+        assertEquals(0, rejected.getAttempts());
+        assertEquals(OutboxStatus.SENT, delivered.getStatus());
+        assertEquals(2, savedDeliveries().size());
+    }
+
+    @Test
+    void rowStillInFlightIsNotRequeuedOnceItsAlertIsClosed() {
+        NotificationOutbox failed = claimed(1L, OutboxStatus.IN_FLIGHT);
+        when(notificationOutboxRepository.lockAllById(anyCollection())).thenReturn(List.of(failed));
+        when(sosAlertRepository.findClosedIds(anyCollection())).thenReturn(List.of(ALERT_ID));
+
+        outboxService.complete(List.of(NotificationResult.failure(task(failed), "SMTP timeout", true, 30)));
+
+        assertEquals(OutboxStatus.CANCELLED, failed.getStatus());
+        assertEquals(1, savedDeliveries().size());
+    }
+
+    @Test
+    void retryableFailureOfAnActiveAlertIsRequeued() {
+        NotificationOutbox failed = claimed(1L, OutboxStatus.IN_FLIGHT);
+        when(notificationOutboxRepository.lockAllById(anyCollection())).thenReturn(List.of(failed));
+        when(sosAlertRepository.findClosedIds(anyCollection())).thenReturn(List.of());
+
+        outboxService.complete(List.of(NotificationResult.failure(task(failed), "SMTP timeout", true, 30)));
+
+        assertEquals(OutboxStatus.PENDING, failed.getStatus());
+        assertEquals(1, failed.getAttempts());
+        assertNull(failed.getClaimedBy());
+    }
+
+    private NotificationOutbox claimed(Long id, OutboxStatus status) {
+        NotificationOutbox message = new NotificationOutbox();
+        message.setId(id);
+        message.setAlertId(ALERT_ID);
+        message.setChannel(NotificationChannel.EMAIL);
+        message.setRecipient("contact" + id + "@example.com");
+        message.setStatus(status);
+        message.setAttempts(0);
+        message.setClaimedAt(LocalDateTime.now());
+        message.setClaimedBy("node-a");
+        return message;
+    }
+
+    private NotificationTask task(NotificationOutbox message) {
+        NotificationTask task = new NotificationTask();
+        task.setOutboxId(message.getId());
+        task.setAlertId(message.getAlertId());
+        task.setChannel(message.getChannel());
+        task.setRecipient(message.getRecipient());
+        return task;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<AlertDelivery> savedDeliveries() {
+        ArgumentCaptor<List<AlertDelivery>> captor = ArgumentCaptor.forClass(List.class);
+        verify(alertDeliveryRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+}
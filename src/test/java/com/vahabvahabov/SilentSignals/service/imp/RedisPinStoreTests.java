@@ -0,0 +1,111 @@
+package com.vahabvahabov.SilentSignals.service.imp;
+
+import com.vahabvahabov.SilentSignals.exception.PinStoreUnavailableException;
+import com.vahabvahabov.SilentSignals.service.PinStore.Purpose;
+import com.vahabvahabov.SilentSignals.service.PinStore.Verification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RedisPinStoreTests {
+
+    private static final String MAIL = "alice@example.com";
+
+    private RedisServer redisServer;
+    private LettuceConnectionFactory connectionFactory;
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @BeforeEach
+    void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        // A short command timeout, so the unreachable-Redis case fails fast.
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port),
+                LettuceClientConfiguration.builder().commandTimeout(Duration.ofMillis(500)).build());
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(new StringRedisSerializer());
+        redisTemplate.setHashKeySerializer(new StringRedisSerializer());
+        redisTemplate.setHashValueSerializer(new StringRedisSerializer());
+        redisTemplate.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        if (redisServer.isActive()) {
+            redisServer.stop();
+        }
+    }
+
+    @Test
+    void pinIsRedeemedOnceOnAnyNode() {
+        RedisPinStore nodeA = store(10);
+        RedisPinStore nodeB = store(10);
+
+        String pin = nodeA.issue(Purpose.REGISTRATION, MAIL);
+
+        assertEquals(Verification.INCORRECT, nodeB.verify(Purpose.REGISTRATION, MAIL, wrong(pin)));
+        assertEquals(Verification.VERIFIED, nodeB.verify(Purpose.REGISTRATION, " Alice@Example.com", pin));
+        assertEquals(Verification.NOT_FOUND, nodeA.verify(Purpose.REGISTRATION, MAIL, pin));
+    }
+
+    @Test
+    void expiredPinIsReportedAsExpiredWithinTheGracePeriod() {
+        // A zero TTL expires the PIN the moment it is issued; the grace period keeps the hash.
+        RedisPinStore store = store(0);
+
+        String pin = store.issue(Purpose.PASSWORD_RESET, MAIL);
+
+        assertEquals(Verification.EXPIRED, store.verify(Purpose.PASSWORD_RESET, MAIL, pin));
+        assertEquals(Verification.NOT_FOUND, store.verify(Purpose.PASSWORD_RESET, MAIL, pin));
+    }
+
+    @Test
+    void unreachableRedisIsReportedAsUnavailable() throws IOException {
+        RedisPinStore store = store(10);
+        String pin = store.issue(Purpose.REGISTRATION, MAIL);
+
+        redisServer.stop();
+
+        assertThrows(PinStoreUnavailableException.class, () -> store.issue(Purpose.REGISTRATION, MAIL));
+        assertThrows(PinStoreUnavailableException.class, () -> store.verify(Purpose.REGISTRATION, MAIL, pin));
+    }
+
+    private RedisPinStore store(long ttlMinutes) {
+        RedisPinStore store = new RedisPinStore();
+        ReflectionTestUtils.setField(store, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(store, "ttlMinutes", ttlMinutes);
+        ReflectionTestUtils.setField(store, "maxAttempts", 5);
+        ReflectionTestUtils.setField(store, "expiredGraceSeconds", 60L);
+        return store;
+    }
+
+    private static String wrong(String pin) {
+        String wrong = String.format("%06d", (Integer.parseInt(pin) + 1) % 1_000_000);
+        assertNotEquals(pin, wrong);
+        return wrong;
+    }
+}
@@ -0,0 +1,95 @@
+package com.vahabvahabov.SilentSignals.service.imp;
+
+import com.vahabvahabov.SilentSignals.security.InMemoryRateLimiterUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RedisRateLimiterTests {
+
+    private RedisServer redisServer;
+    private LettuceConnectionFactory connectionFactory;
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @BeforeEach
+    void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(new StringRedisSerializer());
+        redisTemplate.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        if (redisServer.isActive()) {
+            redisServer.stop();
+        }
+    }
+
+    @Test
+    void nodesShareOneLimit() {
+        RedisRateLimiter nodeA = limiter(3);
+        RedisRateLimiter nodeB = limiter(3);
+
+        assertTrue(nodeA.isAllowed(1L));
+        assertTrue(nodeB.isAllowed(1L));
+        assertTrue(nodeA.wouldAllow(1L));
+        assertTrue(nodeB.isAllowed(1L));
+        assertFalse(nodeA.isAllowed(1L));
+        assertFalse(nodeB.wouldAllow(1L));
+        assertTrue(nodeA.getTimeUntilReset(1L) > 0);
+        assertTrue(nodeA.isAllowed(2L));
+    }
+
+    @Test
+    void rejectionsAreAnsweredLocally() throws IOException {
+        RedisRateLimiter limiter = limiter(1);
+        assertTrue(limiter.isAllowed(1L));
+        assertFalse(limiter.isAllowed(1L));
+
+        // With Redis gone, only the near-cache can still know that user 1 is over the limit; the
+        // fallback limiter has never seen the user and would admit them.
+        redisServer.stop();
+        assertFalse(limiter.isAllowed(1L));
+        assertTrue(limiter.getTimeUntilReset(1L) > 0);
+    }
+
+    @Test
+    void fallsBackToInMemoryLimitsWhenRedisIsDown() throws IOException {
+        RedisRateLimiter limiter = limiter(2);
+        redisServer.stop();
+
+        assertTrue(limiter.isAllowed(1L));
+        assertTrue(limiter.isAllowed(1L));
+        assertFalse(limiter.isAllowed(1L));
+        assertTrue(limiter.wouldAllow(2L));
+    }
+
+    private RedisRateLimiter limiter(int limit) {
+        InMemoryRateLimiterUtil fallback = new InMemoryRateLimiterUtil(limit, 1, Map.of());
+        return new RedisRateLimiter(redisTemplate, fallback, 5_000, 1_000, 60_000, System::currentTimeMillis);
+    }
+}
@@ -0,0 +1,90 @@
+package com.vahabvahabov.SilentSignals.service.imp;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RedisUserPresenceRegistryTests {
+
+    private static final String PRESENCE_KEY = "ws:presence:alice@example.com";
+
+    private RedisServer redisServer;
+    private LettuceConnectionFactory connectionFactory;
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @BeforeEach
+    void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(new StringRedisSerializer());
+        redisTemplate.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        if (redisServer.isActive()) {
+            redisServer.stop();
+        }
+    }
+
+    @Test
+    void refreshKeepsConnectedUsersOnlinePastTheTtl() throws Exception {
+        RedisUserPresenceRegistry nodeA = registry();
+        RedisUserPresenceRegistry nodeB = registry();
+        nodeA.sessionConnected("Alice@Example.com", "session-1");
+        assertTrue(nodeB.isOnline("alice@example.com"));
+
+        TimeUnit.MILLISECONDS.sleep(1_500);
+        nodeA.refreshPresence();
+        TimeUnit.MILLISECONDS.sleep(1_500);
+        // Connected 3 s ago with a 2 s TTL; only the refresh keeps the user online.
+        assertTrue(nodeB.isOnline("alice@example.com"));
+        assertTrue(redisTemplate.getExpire(PRESENCE_KEY, TimeUnit.MILLISECONDS) > 0);
+
+        nodeA.sessionDisconnected("alice@example.com", "session-1");
+        nodeA.refreshPresence();
+        assertFalse(nodeB.isOnline("alice@example.com"));
+    }
+
+    @Test
+    void refreshRestoresSessionsWhoseKeyWasLost() {
+        RedisUserPresenceRegistry registry = registry();
+        registry.sessionConnected("alice@example.com", "session-1");
+        redisTemplate.delete(PRESENCE_KEY);
+
+        registry.refreshPresence();
+
+        assertTrue(registry.isOnline("alice@example.com"));
+    }
+
+    private RedisUserPresenceRegistry registry() {
+        RedisUserPresenceRegistry registry = new RedisUserPresenceRegistry();
+        ReflectionTestUtils.setField(registry, "jsonRedisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(registry, "presenceTtlSeconds", 2L);
+        return registry;
+    }
+}
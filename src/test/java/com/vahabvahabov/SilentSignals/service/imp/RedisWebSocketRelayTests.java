@@ -0,0 +1,118 @@
+package com.vahabvahabov.SilentSignals.service.imp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class RedisWebSocketRelayTests {
+
+    private static final String CHANNEL = "silent-signals:ws-alerts";
+
+    private RedisServer redisServer;
+    private int port;
+    private final List<LettuceConnectionFactory> connectionFactories = new ArrayList<>();
+    private final List<RedisMessageListenerContainer> containers = new ArrayList<>();
+
+    @BeforeEach
+    void startRedis() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+    }
+
+    @AfterEach
+    void stopRedis() throws Exception {
+        for (RedisMessageListenerContainer container : containers) {
+            container.destroy();
+        }
+        for (LettuceConnectionFactory connectionFactory : connectionFactories) {
+            connectionFactory.destroy();
+        }
+        if (redisServer.isActive()) {
+            redisServer.stop();
+        }
+    }
+
+    @Test
+    void messagePublishedOnOneNodeReachesTheBrokerOfAnother() throws Exception {
+        SimpMessagingTemplate brokerA = mock(SimpMessagingTemplate.class);
+        SimpMessagingTemplate brokerB = mock(SimpMessagingTemplate.class);
+        RedisWebSocketRelay nodeA = node(brokerA);
+        node(brokerB);
+        awaitSubscribers(2);
+
+        nodeA.sendToUser("alice@example.com", "/queue/alerts", "{\"alertId\":42}");
+
+        verify(brokerB, timeout(5_000)).convertAndSendToUser("alice@example.com", "/queue/alerts", "{\"alertId\":42}");
+        verify(brokerA, timeout(5_000)).convertAndSendToUser("alice@example.com", "/queue/alerts", "{\"alertId\":42}");
+    }
+
+    private RedisWebSocketRelay node(SimpMessagingTemplate messagingTemplate) {
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactories.add(connectionFactory);
+
+        RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(new StringRedisSerializer());
+        redisTemplate.afterPropertiesSet();
+
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.afterPropertiesSet();
+        container.start();
+        containers.add(container);
+
+        RedisWebSocketRelay relay = new RedisWebSocketRelay();
+        ReflectionTestUtils.setField(relay, "jsonRedisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(relay, "redisMessageListenerContainer", container);
+        ReflectionTestUtils.setField(relay, "messagingTemplate", messagingTemplate);
+        ReflectionTestUtils.setField(relay, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(relay, "channel", CHANNEL);
+        relay.subscribe();
+        return relay;
+    }
+
+    // Subscriptions are made asynchronously; publishing before they are in place would lose the message.
+    private void awaitSubscribers(long expected) throws Exception {
+        @SuppressWarnings("unchecked")
+        RedisAsyncCommands<byte[], byte[]> commands = (RedisAsyncCommands<byte[], byte[]>)
+                connectionFactories.get(0).getConnection().getNativeConnection();
+        long deadline = System.currentTimeMillis() + 5_000;
+        long subscribers = 0;
+        while (System.currentTimeMillis() < deadline) {
+            Map<byte[], Long> reply = commands.pubsubNumsub(CHANNEL.getBytes(StandardCharsets.UTF_8)).get();
+            subscribers = reply.values().stream().mapToLong(Long::longValue).sum();
+            if (subscribers >= expected) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        assertEquals(expected, subscribers);
+    }
+}